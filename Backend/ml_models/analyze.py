@@ -3,6 +3,7 @@ import json
 import base64
 import io
 import os
+import struct
 from typing import Tuple, List, Dict
 from PIL import Image, ImageDraw, ImageFont, ImageFilter
 import numpy as np
@@ -12,9 +13,34 @@ from collections import deque
 # SEGMENTATION MODULE 
 # =============================================================================
 
+RASTER_EXT = '.rgb'
+RASTER_HEADER_SIZE = 64
+
+def load_raster(path: str) -> Image.Image:
+    """Map a raw RGB raster sidecar written by the backend at upload time (see RasterIngestService)."""
+    with open(path, 'rb') as f:
+        header = f.read(RASTER_HEADER_SIZE)
+    magic, _version, channels, width, height, stride = struct.unpack_from('<4sHHiii', header)
+    if magic != b'TRGB' or channels != 3:
+        raise ValueError('not a raster sidecar: ' + path)
+    rows = np.memmap(path, dtype=np.uint8, mode='r', offset=RASTER_HEADER_SIZE, shape=(height, stride))
+    return Image.fromarray(np.ascontiguousarray(rows[:, :width*3]).reshape(height, width, 3), 'RGB')
+
 def load_image(path: str) -> Image.Image:
+    if path.endswith(RASTER_EXT):
+        return load_raster(path)
     return Image.open(path).convert('RGB')
 
+def source_name(path: str) -> str:
+    """File name root of the original image, also for sidecars like photo.jpg.640x480.rgb"""
+    name = os.path.basename(path)
+    if name.endswith(RASTER_EXT):
+        name = name[:-len(RASTER_EXT)]
+        parts = name.rsplit('.', 1)
+        if len(parts) == 2 and 'x' in parts[1] and parts[1].replace('x', '').isdigit():
+            name = parts[0]
+    return os.path.splitext(name)[0]
+
 def image_to_features(img: Image.Image) -> np.ndarray:
     W, H = img.size
     arr = np.array(img, dtype=np.float32)  # H x W x 3
@@ -480,21 +506,17 @@ def main():
     os.makedirs(result_dir, exist_ok=True)
     
     try:
-        # Load originals
-        orig_base = Image.open(base_path).convert('RGB')
-        orig_cand = Image.open(cand_path).convert('RGB')
-
-        # Apply segmentation
+        # Apply segmentation (inputs are either encoded images or raster sidecars)
         seg_base = segment_and_reconstruct(base_path)
         seg_cand = segment_and_reconstruct(cand_path)
 
-        # Ensure same size
+        # Ensure same size (the backend normally pre-resizes the baseline raster)
         if seg_base.size != seg_cand.size:
             seg_base = seg_base.resize(seg_cand.size, Image.BILINEAR)
 
         # Save segmented images
-        seg_base_name = os.path.splitext(os.path.basename(base_path))[0] + '_seg.png'
-        seg_cand_name = os.path.splitext(os.path.basename(cand_path))[0] + '_seg.png'
+        seg_base_name = source_name(base_path) + '_seg.png'
+        seg_cand_name = source_name(cand_path) + '_seg.png'
         seg_base_path = os.path.join(result_dir, seg_base_name)
         seg_cand_path = os.path.join(result_dir, seg_cand_name)
         seg_base.save(seg_base_path)
@@ -508,8 +530,8 @@ def main():
         # Draw bounding boxes if any
         if res['boxInfo']:
             annotated_img = draw_bounding_boxes(seg_cand, res['boxInfo'])
-            base_name_root = os.path.splitext(os.path.basename(base_path))[0]
-            cand_name_root = os.path.splitext(os.path.basename(cand_path))[0]
+            base_name_root = source_name(base_path)
+            cand_name_root = source_name(cand_path)
             output_filename = f"{base_name_root}_vs_{cand_name_root}_result.jpg"
             output_path = os.path.join(result_dir, output_filename)
             annotated_img.save(output_path, 'JPEG')
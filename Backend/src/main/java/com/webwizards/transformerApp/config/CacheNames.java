@@ -0,0 +1,17 @@
+package com.webwizards.transformerApp.config;
+
+/**
+ * Caches for read-mostly reference data, configured in application.properties.
+ *
+ * Only immutable projections are cached, never entities, so a value shared between requests cannot be
+ * changed by one of them.
+ */
+public final class CacheNames {
+
+    public static final String TRANSFORMERS = "transformers";
+    public static final String TRANSFORMERS_BY_NO = "transformersByNo";
+    public static final String INSPECTIONS = "inspections";
+    public static final String INSPECTION_EXISTS = "inspectionExists";
+
+    private CacheNames() {}
+}
@@ -0,0 +1,67 @@
+package com.webwizards.transformerApp.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces the auto-configured datasource with primary + read replicas when
+ * {@code transformer.read-replicas.urls} is set. Without it the single datasource from
+ * {@code spring.datasource.*} is used as before.
+ */
+@Configuration
+@ConditionalOnExpression("!'${transformer.read-replicas.urls:}'.isBlank()")
+public class ReadReplicaConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties primaryProperties,
+            @Value("${transformer.read-replicas.urls}") List<String> urls,
+            @Value("${transformer.read-replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${transformer.read-replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${transformer.read-replicas.max-staleness:PT5S}") Duration maxStaleness,
+            @Value("${transformer.read-replicas.connect-timeout:PT2S}") Duration connectTimeout,
+            @Value("${transformer.read-replicas.lag-query:}") String lagQuery,
+            MeterRegistry registry) {
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setDriverClassName(primaryProperties.determineDriverClassName());
+            replica.setReadOnly(true);
+            // fail fast so a dead replica costs little before the read falls back to the primary
+            replica.setConnectionTimeout(connectTimeout.toMillis());
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, maxStaleness, lagQuery, registry);
+    }
+
+    // the lazy proxy defers taking a connection until the first statement, after Spring has
+    // marked the transaction read-only
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
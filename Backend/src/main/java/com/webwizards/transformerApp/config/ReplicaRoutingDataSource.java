@@ -0,0 +1,174 @@
+package com.webwizards.transformerApp.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends connections for {@code @Transactional(readOnly = true)} work to a read replica and
+ * everything else to the primary.
+ *
+ * Replicas are used round-robin while they are reachable and their replication lag is within
+ * {@code maxStaleness}; {@link #checkReplicas()} refreshes that state periodically. If no replica
+ * qualifies, or the chosen one refuses a connection, the read goes to the primary. Must sit behind
+ * a {@code LazyConnectionDataSourceProxy} so the connection is taken after the transaction's
+ * read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    static final String PRIMARY = "primary";
+
+    static class Replica {
+        final String key;
+        final DataSource dataSource;
+        volatile boolean up = true;
+        volatile double lagSeconds;
+
+        Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final double maxLagSeconds;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    // replica picked for the connection being opened on this thread, so a failure can be attributed
+    private final ThreadLocal<Replica> chosen = new ThreadLocal<>();
+
+    private final Counter primaryRoutes;
+    private final Counter replicaRoutes;
+    private final Counter fallbacks;
+
+    /**
+     * @param lagQuery query returning the replica's lag in seconds; blank to only check reachability
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources, Duration maxStaleness,
+                                    String lagQuery, MeterRegistry registry) {
+        this.primary = primary;
+        this.maxLagSeconds = maxStaleness.toMillis() / 1000.0;
+        this.lagQuery = lagQuery;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            Replica r = new Replica("replica-" + i, replicaDataSources.get(i));
+            replicas.add(r);
+            targets.put(r.key, r.dataSource);
+            Gauge.builder("datasource.replica.up", r, x -> x.up ? 1 : 0).tag("replica", r.key).register(registry);
+            Gauge.builder("datasource.replica.lag", r, x -> x.lagSeconds).tag("replica", r.key).baseUnit("seconds")
+                    .register(registry);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        this.primaryRoutes = Counter.builder("datasource.routes").tag("target", "primary").register(registry);
+        this.replicaRoutes = Counter.builder("datasource.routes").tag("target", "replica").register(registry);
+        this.fallbacks = Counter.builder("datasource.routes").tag("target", "fallback").register(registry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        chosen.remove();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryRoutes.increment();
+            return PRIMARY;
+        }
+        Replica replica = pick();
+        if (replica == null) {
+            fallbacks.increment();
+            return PRIMARY;
+        }
+        chosen.set(replica);
+        replicaRoutes.increment();
+        return replica.key;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        try {
+            return super.getConnection();
+        } catch (SQLException e) {
+            return fallBack(e);
+        } finally {
+            chosen.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        try {
+            return super.getConnection(username, password);
+        } catch (SQLException e) {
+            return fallBack(e);
+        } finally {
+            chosen.remove();
+        }
+    }
+
+    /**
+     * Re-checks reachability and lag of every replica
+     */
+    @Scheduled(fixedDelayString = "${transformer.read-replicas.check-interval:PT5S}")
+    public void checkReplicas() {
+        for (Replica r : replicas) {
+            boolean wasUp = r.up;
+            try (Connection con = r.dataSource.getConnection()) {
+                if (lagQuery != null && !lagQuery.isBlank()) {
+                    try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(lagQuery)) {
+                        r.lagSeconds = rs.next() ? rs.getDouble(1) : 0;
+                    }
+                } else if (!con.isValid(2)) {
+                    throw new SQLException("connection not valid");
+                }
+                r.up = true;
+                if (!wasUp) log.info("Read replica {} is back (lag {}s)", r.key, r.lagSeconds);
+            } catch (SQLException e) {
+                r.up = false;
+                if (wasUp) log.warn("Read replica {} is down, reads go elsewhere: {}", r.key, e.getMessage());
+            }
+        }
+    }
+
+    private Replica pick() {
+        int n = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(n, 1));
+        for (int i = 0; i < n; i++) {
+            Replica r = replicas.get((start + i) % n);
+            if (r.up && r.lagSeconds <= maxLagSeconds) return r;
+        }
+        return null;
+    }
+
+    private Connection fallBack(SQLException e) throws SQLException {
+        Replica replica = chosen.get();
+        if (replica == null) throw e;
+        replica.up = false;
+        log.warn("Read replica {} refused a connection, using the primary: {}", replica.key, e.getMessage());
+        fallbacks.increment();
+        return primary.getConnection();
+    }
+}
@@ -1,26 +1,65 @@
 package com.webwizards.transformerApp.controller;
 
+import java.util.List;
 import java.util.Map;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webwizards.transformerApp.dto.AnalysisResultSearchCriteria;
+import com.webwizards.transformerApp.event.AnalysisChangeEvent;
+import com.webwizards.transformerApp.model.AnalysisResult;
 import com.webwizards.transformerApp.model.InspectionBox;
-import com.webwizards.transformerApp.repository.InspectionBoxRepository;
-
-@CrossOrigin(origins = "http://localhost:3000")
+import com.webwizards.transformerApp.repository.AnalysisResultRepository;
+import com.webwizards.transformerApp.repository.InspectionRepository;
+import com.webwizards.transformerApp.service.AnalysisSearchService;
+import com.webwizards.transformerApp.service.AnalysisWriteBehindService;
+import com.webwizards.transformerApp.service.AnomalyRollupService;
+import com.webwizards.transformerApp.service.DashboardStatsService;
+import com.webwizards.transformerApp.service.KeysetPaging;
+import com.webwizards.transformerApp.service.ThermalTrendService;
+
+@CrossOrigin(origins = "http://localhost:3000", exposedHeaders = KeysetPaging.NEXT_CURSOR_HEADER)
 @RestController
 @RequestMapping("/api/analysis-results")
 public class AnalysisResultController {
 
-    private final InspectionBoxRepository boxRepository;
-
-    public AnalysisResultController(InspectionBoxRepository boxRepository) {
-        this.boxRepository = boxRepository;
+    private final AnomalyRollupService rollups;
+    private final ThermalTrendService thermalTrend;
+    private final DashboardStatsService stats;
+    private final InspectionRepository inspectionRepository;
+    private final AnalysisResultRepository resultRepository;
+    private final AnalysisWriteBehindService writeBehind;
+    private final AnalysisSearchService searchService;
+    private final KeysetPaging paging;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher events;
+
+    public AnalysisResultController(AnomalyRollupService rollups, ThermalTrendService thermalTrend,
+                                    DashboardStatsService stats,
+                                    InspectionRepository inspectionRepository,
+                                    AnalysisResultRepository resultRepository, AnalysisWriteBehindService writeBehind,
+                                    AnalysisSearchService searchService, KeysetPaging paging, ObjectMapper objectMapper,
+                                    ApplicationEventPublisher events) {
+        this.rollups = rollups;
+        this.thermalTrend = thermalTrend;
+        this.stats = stats;
+        this.inspectionRepository = inspectionRepository;
+        this.resultRepository = resultRepository;
+        this.writeBehind = writeBehind;
+        this.searchService = searchService;
+        this.paging = paging;
+        this.objectMapper = objectMapper;
+        this.events = events;
     }
 
     @PostMapping
@@ -28,9 +67,23 @@ public class AnalysisResultController {
         try {
             String inspectionId = payload.getOrDefault("inspectionId", "").toString();
             Object resultObj = payload.get("result");
+            Long inspectionRefId = resolveInspection(inspectionId);
+
+            // keep the raw result as jsonb so it can be searched later
+            if (resultObj != null) {
+                AnalysisResult raw = new AnalysisResult();
+                raw.setInspectionId(inspectionId);
+                raw.setResultJson(objectMapper.writeValueAsString(resultObj));
+                resultRepository.save(raw);
+                if (resultObj instanceof Map<?, ?> result) {
+                    thermalTrend.record(inspectionRefId, metric(result, "prob"), metric(result, "histDistance"),
+                            metric(result, "dv95"), metric(result, "warmFraction"));
+                }
+            }
 
             // Save each box as its own row if present into the single table `analysis_results`
             java.util.List<Long> savedIds = new java.util.ArrayList<>();
+            java.util.List<InspectionBox> batch = new java.util.ArrayList<>();
             try {
                 Map<?,?> resultMap = (Map<?,?>) resultObj;
                 Object boxInfoObj = resultMap.get("boxInfo");
@@ -43,6 +96,7 @@ public class AnalysisResultController {
                             Map<String,Object> bi = (Map<String,Object>) o;
                             InspectionBox ib = new InspectionBox();
                             ib.setInspectionId(inspectionId);
+                            ib.setInspectionRefId(inspectionRefId);
                             // boxIndexId: use inspectionId + '_' + index if inspectionId present, else just index
                             String boxIndexId = (inspectionId == null || inspectionId.isBlank()) ? String.valueOf(i) : inspectionId + "_" + i;
                             ib.setBoxIndexId(boxIndexId);
@@ -74,17 +128,56 @@ public class AnalysisResultController {
                             Object bf = bi.get("boxFault");
                             ib.setBoxFault(bf == null ? "" : bf.toString());
 
-                            InspectionBox saved = boxRepository.save(ib);
-                            if (saved != null && saved.getId() != null) savedIds.add(saved.getId());
+                            batch.add(ib);
                         }
                     }
                 }
             } catch (Exception ex) {
                 // non-fatal: continue
             }
+
+            if (writeBehind.isEnabled()) {
+                // acknowledged once journaled; the flusher copies the rows into bounding_boxes
+                savedIds.addAll(writeBehind.submitBoxes(batch));
+            } else {
+                // one saveAll so Hibernate can send the inserts as JDBC batches; counted into the rollups with them
+                for (InspectionBox saved : rollups.saveBoxes(batch)) {
+                    if (saved.getId() != null) savedIds.add(saved.getId());
+                }
+            }
+            stats.detectionsAdded(batch);
+            events.publishEvent(new AnalysisChangeEvent(AnalysisChangeEvent.ANALYSIS_SAVED, inspectionRefId, batch.size()));
             return ResponseEntity.ok(Map.of("savedBoxCount", savedIds.size(), "savedBoxIds", savedIds));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
     }
+
+    // GET /api/analysis-results/search?inspectionId=&label=&boxFault=&contains=
+    // keyset-paginated like the other lists; pass X-Next-Cursor back as ?cursor=
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@ModelAttribute AnalysisResultSearchCriteria criteria,
+                                    @RequestParam(value = "cursor", required = false) String cursor,
+                                    @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            int pageSize = paging.pageSize(limit);
+            List<AnalysisResult> rows = searchService.searchResults(criteria, paging.decode(cursor), pageSize + 1);
+            return paging.respond(rows, pageSize, AnalysisResult::getId);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (Exception ex) {
+            return ResponseEntity.status(500).body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    // the frontend sends the inspection's id as a string; link the boxes when it names a stored inspection
+    private Long resolveInspection(String inspectionId) {
+        if (inspectionId == null || !inspectionId.matches("\\d{1,18}")) return null;
+        Long id = Long.valueOf(inspectionId);
+        return inspectionRepository.existsById(id) ? id : null;
+    }
+
+    private static Double metric(Map<?, ?> result, String name) {
+        return result.get(name) instanceof Number n ? n.doubleValue() : null;
+    }
 }
@@ -0,0 +1,39 @@
+package com.webwizards.transformerApp.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.webwizards.transformerApp.dto.AnomalyAnalyticsQuery;
+import com.webwizards.transformerApp.service.AnomalyRollupService;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "http://localhost:3000")
+public class AnalyticsController {
+
+    private final AnomalyRollupService rollups;
+
+    public AnalyticsController(AnomalyRollupService rollups) {
+        this.rollups = rollups;
+    }
+
+    // GET /api/analytics/anomalies?groupBy=region,month&source=&region=&transformerNo=&label=&from=2025-01&to=2025-06
+    // answered from anomaly_rollups, so the cost does not grow with the number of raw anomalies.
+    // Write-behind rows are counted once the flusher has written them, without waiting for it here.
+    @GetMapping("/anomalies")
+    public ResponseEntity<?> anomalies(@ModelAttribute AnomalyAnalyticsQuery query) {
+        try {
+            return ResponseEntity.ok(rollups.query(query));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (Exception ex) {
+            return ResponseEntity.status(500).body(Map.of("error", ex.getMessage()));
+        }
+    }
+}
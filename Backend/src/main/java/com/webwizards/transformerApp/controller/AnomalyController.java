@@ -2,31 +2,64 @@ package com.webwizards.transformerApp.controller;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webwizards.transformerApp.dto.AnomalySearchCriteria;
+import com.webwizards.transformerApp.event.AnalysisChangeEvent;
 import com.webwizards.transformerApp.model.Anomaly;
 import com.webwizards.transformerApp.repository.AnomalyRepository;
+import com.webwizards.transformerApp.repository.InspectionRepository;
+import com.webwizards.transformerApp.service.AnalysisSearchService;
+import com.webwizards.transformerApp.service.AnalysisWriteBehindService;
+import com.webwizards.transformerApp.service.AnomalyRollupService;
+import com.webwizards.transformerApp.service.DashboardStatsService;
+import com.webwizards.transformerApp.service.KeysetPaging;
 
 @RestController
 @RequestMapping("/api/anomalies")
 public class AnomalyController {
 
     private final AnomalyRepository anomalyRepository;
-
-    public AnomalyController(AnomalyRepository anomalyRepository) {
+    private final InspectionRepository inspectionRepository;
+    private final AnalysisWriteBehindService writeBehind;
+    private final AnomalyRollupService rollups;
+    private final DashboardStatsService stats;
+    private final AnalysisSearchService searchService;
+    private final KeysetPaging paging;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher events;
+
+    public AnomalyController(AnomalyRepository anomalyRepository, InspectionRepository inspectionRepository,
+                             AnalysisWriteBehindService writeBehind, AnomalyRollupService rollups,
+                             DashboardStatsService stats,
+                             AnalysisSearchService searchService, KeysetPaging paging, ObjectMapper objectMapper,
+                             ApplicationEventPublisher events) {
         this.anomalyRepository = anomalyRepository;
+        this.inspectionRepository = inspectionRepository;
+        this.writeBehind = writeBehind;
+        this.rollups = rollups;
+        this.stats = stats;
+        this.searchService = searchService;
+        this.paging = paging;
+        this.objectMapper = objectMapper;
+        this.events = events;
     }
 
     // POST /api/anomalies/insert
@@ -39,7 +72,7 @@ public class AnomalyController {
             }
 
             List<?> arr = (List<?>) obj;
-            List<Anomaly> saved = new ArrayList<>();
+            List<Anomaly> batch = new ArrayList<>(arr.size());
 
             for (Object o : arr) {
                 if (!(o instanceof Map)) continue;
@@ -51,7 +84,10 @@ public class AnomalyController {
                 a.setIdx(idxObj == null ? null : Integer.valueOf(String.valueOf(idxObj)));
                 a.setLabel(Objects.toString(m.get("label"), null));
                 Object coords = m.get("coords");
-                a.setCoords(coords == null ? null : coords.toString());
+                // stored as jsonb; a string is taken as JSON text, anything else is serialized
+                a.setCoords(coords == null ? null : coords instanceof String str
+                        ? objectMapper.readTree(str).toString()
+                        : objectMapper.writeValueAsString(coords));
                 Object conf = m.get("confidence");
                 a.setConfidence(conf == null ? null : Float.valueOf(String.valueOf(conf)));
                 a.setSeverity(Objects.toString(m.get("severity"), null));
@@ -63,9 +99,22 @@ public class AnomalyController {
                 a.setDeleted(false);
                 a.setCreatedAt(LocalDateTime.now());
 
-                saved.add(anomalyRepository.save(a));
+                batch.add(a);
+            }
+            linkInspections(batch);
+
+            if (writeBehind.isEnabled()) {
+                // acknowledged once journaled; the flusher copies the rows into anomalies
+                writeBehind.submitAnomalies(batch);
+                stats.anomaliesAdded(batch);
+                publish(AnalysisChangeEvent.ANOMALIES_INSERTED, batch);
+                return ResponseEntity.ok(Map.of("success", true, "inserted", batch.size()));
             }
 
+            // one saveAll so Hibernate can send the inserts as JDBC batches; counted into the rollups with them
+            List<Anomaly> saved = rollups.saveAnomalies(batch);
+            stats.anomaliesAdded(saved);
+            publish(AnalysisChangeEvent.ANOMALIES_INSERTED, saved);
             return ResponseEntity.ok(Map.of("success", true, "inserted", saved.size()));
         } catch (Exception ex) {
             return ResponseEntity.status(500).body(Map.of("error", ex.getMessage()));
@@ -83,10 +132,14 @@ public class AnomalyController {
                 return ResponseEntity.badRequest().body(Map.of("error", "inspection_number and index required"));
             }
 
+            writeBehind.awaitFlushed();
             List<Anomaly> found = anomalyRepository.findByInspectionNumberAndIdx(inspectionNumber, idx);
             if (found.isEmpty()) return ResponseEntity.ok(Map.of("success", true, "deleted", 0));
 
-            anomalyRepository.deleteAll(found);
+            List<Anomaly> active = found.stream().filter(a -> !Boolean.TRUE.equals(a.getDeleted())).toList();
+            rollups.deleteAnomalies(found);
+            stats.anomaliesRemoved(active);
+            publish(AnalysisChangeEvent.ANOMALIES_DELETED, found);
             return ResponseEntity.ok(Map.of("success", true, "deleted", found.size()));
         } catch (Exception ex) {
             return ResponseEntity.status(500).body(Map.of("error", ex.getMessage()));
@@ -105,7 +158,9 @@ public class AnomalyController {
                 return ResponseEntity.badRequest().body(Map.of("error", "inspection_number and index required"));
             }
 
-            List<Anomaly> found = anomalyRepository.findByInspectionNumberAndIdx(inspectionNumber, idx);
+            writeBehind.awaitFlushed();
+            // rows already soft-deleted keep who deleted them and when
+            List<Anomaly> found = anomalyRepository.findByInspectionNumberAndIdxAndDeletedFalse(inspectionNumber, idx);
             if (found.isEmpty()) return ResponseEntity.ok(Map.of("success", true, "updated", 0));
 
             for (Anomaly a : found) {
@@ -113,21 +168,68 @@ public class AnomalyController {
                 a.setDeletedAt(LocalDateTime.now());
                 a.setDeletedBy(deletedBy);
             }
-            anomalyRepository.saveAll(found);
+            rollups.saveSoftDeleted(found);
+            stats.anomaliesRemoved(found);
+            publish(AnalysisChangeEvent.ANOMALIES_DELETED, found);
             return ResponseEntity.ok(Map.of("success", true, "updated", found.size()));
         } catch (Exception ex) {
             return ResponseEntity.status(500).body(Map.of("error", ex.getMessage()));
         }
     }
 
-    // GET /api/anomalies/{inspectionNumber}
+    // GET /api/anomalies/search?label=&severity=&minArea=&maxArea=&x=&y=&w=&h=&inspectionNumber=
+    // keyset-paginated like the other lists; pass X-Next-Cursor back as ?cursor=
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@ModelAttribute AnomalySearchCriteria criteria,
+                                    @RequestParam(value = "cursor", required = false) String cursor,
+                                    @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            writeBehind.awaitFlushed();
+            int pageSize = paging.pageSize(limit);
+            List<Anomaly> rows = searchService.searchAnomalies(criteria, paging.decode(cursor), pageSize + 1);
+            return paging.respond(rows, pageSize, Anomaly::getId);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (Exception ex) {
+            return ResponseEntity.status(500).body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    // GET /api/anomalies/{inspectionNumber}?includeDeleted=false
+    // active anomalies only unless includeDeleted=true
     @GetMapping("/{inspectionNumber}")
-    public ResponseEntity<?> getByInspection(@PathVariable String inspectionNumber) {
+    public ResponseEntity<?> getByInspection(@PathVariable String inspectionNumber,
+                                             @RequestParam(value = "includeDeleted", defaultValue = "false") boolean includeDeleted) {
         try {
-            List<Anomaly> found = anomalyRepository.findByInspectionNumber(inspectionNumber);
+            // make anomalies acknowledged by earlier inserts visible
+            writeBehind.awaitFlushed();
+            List<Anomaly> found = includeDeleted
+                    ? anomalyRepository.findByInspectionNumber(inspectionNumber)
+                    : anomalyRepository.findByInspectionNumberAndDeletedFalseOrderByIdx(inspectionNumber);
             return ResponseEntity.ok(found);
         } catch (Exception ex) {
             return ResponseEntity.status(500).body(Map.of("error", ex.getMessage()));
         }
     }
+
+    // inspection_number is the inspection's id as a string; link rows that name a stored inspection.
+    // A batch names one or a few inspections, each answered by the inspectionExists cache.
+    private void linkInspections(List<Anomaly> batch) {
+        Map<Long, Boolean> exists = new HashMap<>();
+        for (Anomaly a : batch) {
+            Long id = parseId(a.getInspectionNumber());
+            if (id != null && exists.computeIfAbsent(id, inspectionRepository::existsById)) a.setInspectionRefId(id);
+        }
+    }
+
+    // one change event per inspection touched
+    private void publish(String type, List<Anomaly> anomalies) {
+        Map<Long, Integer> perInspection = new HashMap<>();
+        for (Anomaly a : anomalies) perInspection.merge(a.getInspectionRefId(), 1, Integer::sum);
+        perInspection.forEach((inspectionId, n) -> events.publishEvent(new AnalysisChangeEvent(type, inspectionId, n)));
+    }
+
+    private static Long parseId(String s) {
+        return s != null && s.matches("\\d{1,18}") ? Long.valueOf(s) : null;
+    }
 }
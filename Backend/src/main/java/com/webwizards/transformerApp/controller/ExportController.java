@@ -0,0 +1,53 @@
+package com.webwizards.transformerApp.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webwizards.transformerApp.dto.ExportQuery;
+import com.webwizards.transformerApp.service.ExportService;
+
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ExportController {
+
+    private final ExportService exportService;
+    private final ObjectMapper objectMapper;
+
+    public ExportController(ExportService exportService, ObjectMapper objectMapper) {
+        this.exportService = exportService;
+        this.objectMapper = objectMapper;
+    }
+
+    // GET /api/export/{anomalies|bounding-boxes}?format=csv|csv.gz&from=2025-01-01&to=2025-06-30&region=&transformerNo=&includeDeleted=
+    // streamed from a database cursor; an error after the first bytes can only abort the download
+    @GetMapping("/{entity}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable String entity, @ModelAttribute ExportQuery query) {
+        try {
+            exportService.validate(entity, query);
+        } catch (IllegalArgumentException ex) {
+            // the body type is fixed to a stream, so the usual error map is written through one
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, Map.of("error", ex.getMessage())));
+        }
+        boolean gzip = "csv.gz".equals(query.getFormat());
+        StreamingResponseBody body = out -> exportService.export(entity, query, out);
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(entity + "." + query.getFormat()).build().toString())
+                .body(body);
+    }
+}
@@ -2,12 +2,24 @@ package com.webwizards.transformerApp.controller;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -20,16 +32,35 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import com.webwizards.transformerApp.config.CacheNames;
+import com.webwizards.transformerApp.dto.BulkImportEntryResult;
+import com.webwizards.transformerApp.dto.GeneralRecordSummary;
 import com.webwizards.transformerApp.dto.InspectionRequest;
 import com.webwizards.transformerApp.dto.MLPredictionRequest;
 import com.webwizards.transformerApp.dto.MLPredictionResponse;
+import com.webwizards.transformerApp.dto.MaintenanceRecordSummary;
+import com.webwizards.transformerApp.dto.WorkDataSheetSummary;
+import com.webwizards.transformerApp.event.AnalysisChangeEvent;
 import com.webwizards.transformerApp.model.Inspection;
+import com.webwizards.transformerApp.model.BoxTrack;
 import com.webwizards.transformerApp.model.InspectionImage;
 import com.webwizards.transformerApp.model.Transformer;
 import com.webwizards.transformerApp.repository.InspectionImageRepository;
 import com.webwizards.transformerApp.repository.InspectionRepository;
 import com.webwizards.transformerApp.repository.TransformerRepository;
+import com.webwizards.transformerApp.repository.ListingSpecifications;
+import com.webwizards.transformerApp.service.BoxIndexService;
+import com.webwizards.transformerApp.service.BulkImageImportService;
+import com.webwizards.transformerApp.service.DashboardStatsService;
+import com.webwizards.transformerApp.service.HotspotTrackingService;
+import com.webwizards.transformerApp.service.InspectionDetailService;
+import com.webwizards.transformerApp.service.KeysetPaging;
 import com.webwizards.transformerApp.service.PythonMLService;
+import com.webwizards.transformerApp.service.RasterIngestService;
+import com.webwizards.transformerApp.service.ThermalTrendService;
+import com.webwizards.transformerApp.service.TieredImageStorage;
 // import java.nio.file.Paths;
 
 // Add imports for new models and repositories
@@ -41,11 +72,13 @@ import com.webwizards.transformerApp.repository.MaintenanceRecordRepository;
 import com.webwizards.transformerApp.repository.WorkDataSheetRepository;
 
 
-@CrossOrigin(origins = "http://localhost:3000")
+@CrossOrigin(origins = "http://localhost:3000", exposedHeaders = KeysetPaging.NEXT_CURSOR_HEADER)
 @RestController
 @RequestMapping("/api")
 public class MainController {
 
+    private static final Logger log = LoggerFactory.getLogger(MainController.class);
+
     private final TransformerRepository transformerRepo;
     private final InspectionRepository inspectionRepo;
     private final InspectionImageRepository inspectionImageRepo;
@@ -53,11 +86,25 @@ public class MainController {
     private final GeneralRecordRepository generalRecordRepo;
     private final MaintenanceRecordRepository maintenanceRecordRepo;
     private final WorkDataSheetRepository workDataSheetRepo;
+    private final RasterIngestService rasterIngestService;
+    private final TieredImageStorage imageStorage;
+    private final BulkImageImportService bulkImageImportService;
+    private final KeysetPaging paging;
+    private final ThermalTrendService thermalTrend;
+    private final BoxIndexService boxIndex;
+    private final HotspotTrackingService hotspotTracking;
+    private final DashboardStatsService stats;
+    private final InspectionDetailService inspectionDetail;
+    private final ApplicationEventPublisher events;
 
     public MainController(TransformerRepository transformerRepo, InspectionRepository inspectionRepo, 
                          InspectionImageRepository inspectionImageRepo, PythonMLService pythonMLService,
                          GeneralRecordRepository generalRecordRepo, MaintenanceRecordRepository maintenanceRecordRepo,
-                         WorkDataSheetRepository workDataSheetRepo) {
+                         WorkDataSheetRepository workDataSheetRepo, RasterIngestService rasterIngestService,
+                         TieredImageStorage imageStorage, BulkImageImportService bulkImageImportService,
+                         KeysetPaging paging, ThermalTrendService thermalTrend, BoxIndexService boxIndex,
+                         HotspotTrackingService hotspotTracking, DashboardStatsService stats,
+                         InspectionDetailService inspectionDetail, ApplicationEventPublisher events) {
         this.transformerRepo = transformerRepo;
         this.inspectionRepo = inspectionRepo;
         this.inspectionImageRepo = inspectionImageRepo;
@@ -65,10 +112,21 @@ public class MainController {
         this.generalRecordRepo = generalRecordRepo;
         this.maintenanceRecordRepo = maintenanceRecordRepo;
         this.workDataSheetRepo = workDataSheetRepo;
+        this.rasterIngestService = rasterIngestService;
+        this.imageStorage = imageStorage;
+        this.bulkImageImportService = bulkImageImportService;
+        this.paging = paging;
+        this.thermalTrend = thermalTrend;
+        this.boxIndex = boxIndex;
+        this.hotspotTracking = hotspotTracking;
+        this.stats = stats;
+        this.inspectionDetail = inspectionDetail;
+        this.events = events;
     }
 
     // ----------- TRANSFORMERS -------------
     @PostMapping("/transformers")
+    @CacheEvict(cacheNames = { CacheNames.TRANSFORMERS, CacheNames.TRANSFORMERS_BY_NO }, allEntries = true)
     public Transformer addTransformer(@RequestBody Transformer transformer) {
         if (transformer == null) {
             throw new IllegalArgumentException("Transformer data cannot be null");
@@ -76,12 +134,29 @@ public class MainController {
         return transformerRepo.save(transformer);
     }
 
+    // Keyset-paginated; pass the X-Next-Cursor response header back as ?cursor= for the next page
     @GetMapping("/transformers")
-    public List<Transformer> getTransformers() {
-        return transformerRepo.findAll();
+    public ResponseEntity<?> getTransformers(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "region", required = false) String region,
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "transformerNo", required = false) String transformerNoPrefix) {
+        Long after;
+        try {
+            after = paging.decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+        int pageSize = paging.pageSize(limit);
+        List<Transformer> rows = transformerRepo.findBy(
+                ListingSpecifications.transformers(after, region, type, transformerNoPrefix),
+                q -> q.sortBy(Sort.by("id")).limit(pageSize + 1).all());
+        return paging.respond(rows, pageSize, Transformer::getId);
     }
 
     @PostMapping("/inspections")
+    @CacheEvict(cacheNames = { CacheNames.INSPECTIONS, CacheNames.INSPECTION_EXISTS }, allEntries = true)
     public Inspection addInspection(@RequestBody InspectionRequest request) {
         if (request == null) {
             throw new IllegalArgumentException("Inspection request cannot be null");
@@ -90,18 +165,46 @@ public class MainController {
         Inspection inspection = new Inspection();
         inspection.setBranch(request.getBranch());
         inspection.setTransformerNo(request.getTransformerNo());
+        if (request.getTransformerNo() != null) {
+            transformerRepo.findFirstByTransformerNoOrderByIdAsc(request.getTransformerNo())
+                    .ifPresent(t -> inspection.setTransformerId(t.id()));
+        }
         inspection.setDate(request.getDate());
         inspection.setTime(request.getTime());
         inspection.setStatus(request.getStatus());
         inspection.setMaintainanceDate(request.getMaintainanceDate());
         // Save into DB
-        return inspectionRepo.save(inspection);
+        Inspection saved = inspectionRepo.save(inspection);
+        stats.inspectionAdded(saved.getStatus());
+        return saved;
     }
     
 
+    // Keyset-paginated; pass the X-Next-Cursor response header back as ?cursor= for the next page
     @GetMapping("/inspections")
-    public List<Inspection> getInspections() {
-        return inspectionRepo.findAll();
+    public ResponseEntity<?> getInspections(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "branch", required = false) String branch,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "transformerNo", required = false) String transformerNoPrefix,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "region", required = false) String region) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "from must not be after to"));
+        }
+        Long after;
+        try {
+            after = paging.decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+        int pageSize = paging.pageSize(limit);
+        List<Inspection> rows = inspectionRepo.findBy(
+                ListingSpecifications.inspections(after, branch, status, transformerNoPrefix, from, to, region),
+                q -> q.sortBy(Sort.by("id")).limit(pageSize + 1).all());
+        return paging.respond(rows, pageSize, Inspection::getId);
     }
 
     @PostMapping("/images")
@@ -116,14 +219,11 @@ public class MainController {
         Inspection inspection = inspectionRepo.findById(inspectionId)
                 .orElseThrow(() -> new IllegalArgumentException("Inspection not found"));
 
-        // Create uploads folder if not exists
-        String folder = System.getProperty("user.dir") + "/uploads/";
-        File uploadDir = new File(folder);
-        if (!uploadDir.exists()) uploadDir.mkdirs();
-
-        // Save file to disk
-        String filePath = folder + file.getOriginalFilename();
-        file.transferTo(new File(filePath));
+        // Save file into the hot storage tier
+        Path target = imageStorage.hotDirectory().resolve(Paths.get(file.getOriginalFilename()).getFileName().toString());
+        String filePath = target.toString();
+        file.transferTo(target.toFile());
+        imageStorage.admit(target);
 
         // Save metadata in DB
         InspectionImage image = new InspectionImage();
@@ -132,9 +232,68 @@ public class MainController {
         image.setContentType(file.getContentType());
         image.setInspection(inspection);
 
+        // Decode once into the raw raster sidecar the analyzers map; the analyzers fall back to
+        // decoding the original, so a failure here must not lose the upload
+        try {
+            RasterIngestService.RasterInfo raster = rasterIngestService.ingest(target);
+            if (raster != null) {
+                image.setWidth(raster.getWidth());
+                image.setHeight(raster.getHeight());
+                imageStorage.admit(rasterIngestService.sidecarFor(target));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Storing {} without a raster sidecar: {}", target.getFileName(), e.getMessage());
+        }
+
         return inspectionImageRepo.save(image);
     }
 
+    // Images of one inspection; the inspection is fetched in the same query
+    @GetMapping("/inspections/{id}/images")
+    public List<InspectionImage> getInspectionImages(@PathVariable Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Inspection ID cannot be null");
+        }
+        return inspectionImageRepo.findByInspectionIdOrderByIdAsc(id);
+    }
+
+    // The inspection with its images, active anomalies, boxes and linked records in one document.
+    // Spring answers a matching If-None-Match with 304 from the ETag; no-cache makes clients revalidate.
+    @GetMapping("/inspections/{id}/full")
+    public ResponseEntity<byte[]> getInspectionFull(@PathVariable Long id) {
+        return inspectionDetail.document(id)
+                .map(doc -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .cacheControl(CacheControl.noCache())
+                        .eTag(doc.etag())
+                        .body(doc.json()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Bulk import of a ZIP of images, either as a multipart "file" part or as a raw application/zip body
+    @PostMapping(value = "/inspections/{id}/images/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Map<String, Object> bulkUploadImages(@PathVariable Long id, @RequestParam("file") MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("ZIP file cannot be empty");
+        }
+        return bulkImport(id, file.getInputStream());
+    }
+
+    @PostMapping(value = "/inspections/{id}/images/bulk", consumes = { "application/zip", MediaType.APPLICATION_OCTET_STREAM_VALUE })
+    public Map<String, Object> bulkUploadImagesStream(@PathVariable Long id, HttpServletRequest request) throws IOException {
+        return bulkImport(id, request.getInputStream());
+    }
+
+    private Map<String, Object> bulkImport(Long inspectionId, InputStream zip) throws IOException {
+        if (inspectionId == null || !inspectionRepo.existsById(inspectionId)) {
+            throw new IllegalArgumentException("Inspection not found");
+        }
+        List<BulkImportEntryResult> entries = bulkImageImportService.importZip(inspectionId, zip);
+        long imported = entries.stream().filter(e -> "imported".equals(e.getStatus())).count();
+        long failed = entries.stream().filter(e -> "failed".equals(e.getStatus())).count();
+        return Map.of("inspectionId", inspectionId, "imported", imported, "failed", failed, "entries", entries);
+    }
+
     @GetMapping("/images/{id}")
     public ResponseEntity<Resource> getImage(@PathVariable Long id) throws Exception {
         if (id == null) {
@@ -144,7 +303,7 @@ public class MainController {
         InspectionImage image = inspectionImageRepo.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Image not found"));
 
-        Path path = Paths.get(image.getFilePath());
+        Path path = imageStorage.resolve(image.getFilePath());
         if (path == null) {
             throw new IllegalArgumentException("File path cannot be null");
         }
@@ -188,7 +347,7 @@ public class MainController {
             
             // Use the service to predict
             MLPredictionRequest request = new MLPredictionRequest();
-            request.setImagePath(image.getFilePath());
+            request.setImagePath(imageStorage.resolve(image.getFilePath()).toString());
             request.setModelType(modelType);
             
             MLPredictionResponse response = pythonMLService.predict(request);
@@ -220,7 +379,7 @@ public class MainController {
             MLPredictionResponse response = pythonMLService.predictFromUploadedImage(fileName, modelType);
             
             // Clean up temporary file
-            new File(filePath).delete();
+            imageStorage.delete(Paths.get(filePath));
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -262,11 +421,12 @@ public class MainController {
         }
 
         MLPredictionRequest request = new MLPredictionRequest();
-        request.setBaselineImagePath(baselineImage.getFilePath());
-        request.setCandidateImagePath(candidateImage.getFilePath());
+        request.setBaselineImagePath(imageStorage.resolve(baselineImage.getFilePath()).toString());
+        request.setCandidateImagePath(imageStorage.resolve(candidateImage.getFilePath()).toString());
         request.setModelType("thermal_analysis");
 
         MLPredictionResponse response = pythonMLService.analyzeThermalImages(request);
+        recordThermalMetrics(candidateImage, response);
         return ResponseEntity.ok(response);
     }
     
@@ -300,8 +460,8 @@ public class MainController {
             MLPredictionResponse response = pythonMLService.analyzeThermalImages(request);
             
             // Clean up temporary files
-            new File(baselineFilePath).delete();
-            new File(candidateFilePath).delete();
+            imageStorage.delete(Paths.get(baselineFilePath));
+            imageStorage.delete(Paths.get(candidateFilePath));
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -331,14 +491,15 @@ public class MainController {
             // Create thermal analysis request
             MLPredictionRequest request = new MLPredictionRequest();
             request.setBaselineImagePath(baselineFilePath);
-            request.setCandidateImagePath(candidateImage.getFilePath());
+            request.setCandidateImagePath(imageStorage.resolve(candidateImage.getFilePath()).toString());
             request.setModelType("thermal_analysis");
             
             // Perform thermal analysis
             MLPredictionResponse response = pythonMLService.analyzeThermalImages(request);
             
             // Clean up temporary baseline file
-            new File(baselineFilePath).delete();
+            imageStorage.delete(Paths.get(baselineFilePath));
+            recordThermalMetrics(candidateImage, response);
             
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
@@ -350,6 +511,101 @@ public class MainController {
         }
     }
 
+    // GET /api/transformers/{id}/thermal-trend?from=2024-01-01T00:00:00&to=&points=300
+    // prob, histDistance, dv95 and warmFraction over the transformer's inspections, each LTTB-downsampled
+    @GetMapping("/transformers/{id}/thermal-trend")
+    public ResponseEntity<?> getThermalTrend(
+            @PathVariable Long id,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "points", required = false) Integer points) {
+        try {
+            return ResponseEntity.ok(thermalTrend.trend(id, from, to, points));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    // GET /api/transformers/{id}/boxes?x=&y=&w=&h=
+    // stored boxes of all the transformer's inspections overlapping the region, in image pixels
+    @GetMapping("/transformers/{id}/boxes")
+    public ResponseEntity<?> getOverlappingBoxes(
+            @PathVariable Long id,
+            @RequestParam("x") int x, @RequestParam("y") int y,
+            @RequestParam("w") int w, @RequestParam("h") int h) {
+        if (w < 0 || h < 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "w and h cannot be negative"));
+        }
+        return ResponseEntity.ok(boxIndex.search(id, x, y, w, h));
+    }
+
+    // GET /api/transformers/{id}/tracks
+    // hotspots followed across the transformer's inspections, with sightings and growth (latest area / first area)
+    @GetMapping("/transformers/{id}/tracks")
+    public List<BoxTrack> getHotspotTracks(@PathVariable Long id) {
+        return hotspotTracking.tracks(id);
+    }
+
+    // the candidate image's inspection gets a point in its transformer's thermal trend, and stream
+    // subscribers hear that its analysis completed
+    private void recordThermalMetrics(InspectionImage candidate, MLPredictionResponse response) {
+        if (!response.isSuccess() || candidate.getInspection() == null) return;
+        thermalTrend.record(candidate.getInspection().getId(), response.getProb(), response.getHistDistance(),
+                response.getDv95(), response.getWarmFraction());
+        events.publishEvent(new AnalysisChangeEvent(AnalysisChangeEvent.ANALYSIS_COMPLETED, candidate.getInspection().getId(), 1));
+    }
+
+    // Summary listings of the form records; keyset-paginated like the other lists
+    @GetMapping("/general-records")
+    public ResponseEntity<?> getGeneralRecords(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        Long after;
+        try {
+            after = afterId(cursor);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+        int pageSize = paging.pageSize(limit);
+        List<GeneralRecordSummary> rows = generalRecordRepo.findByIdGreaterThanOrderByIdAsc(after, Limit.of(pageSize + 1));
+        return paging.respond(rows, pageSize, GeneralRecordSummary::id);
+    }
+
+    @GetMapping("/maintenance-records")
+    public ResponseEntity<?> getMaintenanceRecords(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        Long after;
+        try {
+            after = afterId(cursor);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+        int pageSize = paging.pageSize(limit);
+        List<MaintenanceRecordSummary> rows = maintenanceRecordRepo.findByIdGreaterThanOrderByIdAsc(after, Limit.of(pageSize + 1));
+        return paging.respond(rows, pageSize, MaintenanceRecordSummary::id);
+    }
+
+    @GetMapping("/work-data-sheets")
+    public ResponseEntity<?> getWorkDataSheets(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        Long after;
+        try {
+            after = afterId(cursor);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+        int pageSize = paging.pageSize(limit);
+        List<WorkDataSheetSummary> rows = workDataSheetRepo.findByIdGreaterThanOrderByIdAsc(after, Limit.of(pageSize + 1));
+        return paging.respond(rows, pageSize, WorkDataSheetSummary::id);
+    }
+
+    private Long afterId(String cursor) {
+        Long id = paging.decode(cursor);
+        return id == null ? 0L : id;
+    }
+
     // Endpoint to add General Record
     @PostMapping("/general-records")
     public GeneralRecord addGeneralRecord(@RequestBody GeneralRecord generalRecord) {
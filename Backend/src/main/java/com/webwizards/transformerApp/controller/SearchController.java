@@ -0,0 +1,39 @@
+package com.webwizards.transformerApp.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.webwizards.transformerApp.service.TextSearchService;
+
+@RestController
+@RequestMapping("/api/search")
+@CrossOrigin(origins = "http://localhost:3000")
+public class SearchController {
+
+    private final TextSearchService textSearch;
+
+    public SearchController(TextSearchService textSearch) {
+        this.textSearch = textSearch;
+    }
+
+    // GET /api/search?q=oil leak -gasket&type=general-record|work-data-sheet&limit=20
+    // ranked hits over recommended actions, remarks and work notes, with <mark>-highlighted excerpts
+    @GetMapping
+    public ResponseEntity<?> search(@RequestParam String q,
+                                    @RequestParam(required = false) String type,
+                                    @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(textSearch.search(q, type, limit));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (Exception ex) {
+            return ResponseEntity.status(500).body(Map.of("error", ex.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.webwizards.transformerApp.controller;
+
+import java.util.Map;
+
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.webwizards.transformerApp.service.DashboardStatsService;
+
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = "http://localhost:3000")
+public class StatsController {
+
+    private final DashboardStatsService stats;
+
+    public StatsController(DashboardStatsService stats) {
+        this.stats = stats;
+    }
+
+    // GET /api/stats: inspections by status, anomalies by severity, detections by fault;
+    // served from in-memory counters, without touching the database
+    @GetMapping
+    public Map<String, Object> stats() {
+        return stats.stats();
+    }
+}
@@ -0,0 +1,47 @@
+package com.webwizards.transformerApp.controller;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.webwizards.transformerApp.service.ChangeStreamService;
+
+@RestController
+@RequestMapping("/api/stream")
+@CrossOrigin(origins = "http://localhost:3000")
+public class StreamController {
+
+    private final ChangeStreamService changeStream;
+
+    public StreamController(ChangeStreamService changeStream) {
+        this.changeStream = changeStream;
+    }
+
+    // GET /api/stream?transformerId=&region=&inspectionId=&types=analysis-saved,anomalies-inserted
+    // server-sent events named after the change type, with an "overflow" event when this client fell
+    // too far behind and should re-read; EventSource reconnects by itself when the stream times out
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(value = "transformerId", required = false) Long transformerId,
+                                    @RequestParam(value = "region", required = false) String region,
+                                    @RequestParam(value = "inspectionId", required = false) Long inspectionId,
+                                    @RequestParam(value = "types", required = false) String types) {
+        Set<String> typeSet = types == null || types.isBlank() ? null
+                : Arrays.stream(types.split(",")).map(String::trim).filter(t -> !t.isEmpty()).collect(Collectors.toSet());
+        try {
+            return changeStream.subscribe(new ChangeStreamService.Filter(transformerId,
+                    region == null || region.isBlank() ? null : region, inspectionId, typeSet));
+        } catch (IllegalStateException ex) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        }
+    }
+}
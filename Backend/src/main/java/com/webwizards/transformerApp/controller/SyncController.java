@@ -0,0 +1,39 @@
+package com.webwizards.transformerApp.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.webwizards.transformerApp.service.SyncService;
+
+@RestController
+@RequestMapping("/api/sync")
+@CrossOrigin(origins = "http://localhost:3000")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    // GET /api/sync?since=<token>&limit=500
+    // transformers and inspections created, updated or deleted since the token; no token is a full sync.
+    // Follow the returned token while hasMore is true, then keep the last one for the next sync.
+    @GetMapping
+    public ResponseEntity<?> sync(@RequestParam(value = "since", required = false) String since,
+                                  @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(syncService.changes(since, limit));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (Exception ex) {
+            return ResponseEntity.status(500).body(Map.of("error", ex.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.webwizards.transformerApp.dto;
+
+import lombok.Data;
+
+/**
+ * Query parameters of GET /api/analysis-results/search. Absent fields do not filter.
+ */
+@Data
+public class AnalysisResultSearchCriteria {
+    private String inspectionId;
+    private String label;           // some box in boxInfo has this label
+    private String boxFault;        // some box in boxInfo has this fault
+    private String contains;        // raw JSON the result must contain (jsonb @>)
+}
@@ -0,0 +1,26 @@
+package com.webwizards.transformerApp.dto;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import lombok.Data;
+
+/**
+ * Query parameters of GET /api/analytics/anomalies. Absent filters do not filter.
+ */
+@Data
+public class AnomalyAnalyticsQuery {
+    // any of source, region, transformer, month, label; empty groups by all of them
+    private List<String> groupBy;
+    private String source = "anomaly";   // anomaly (reviewed rows) or detection (detector boxes)
+    private String region;
+    private String transformerNo;
+    private String label;                // matched case-insensitively
+    // month range, inclusive
+    @DateTimeFormat(pattern = "yyyy-MM")
+    private YearMonth from;
+    @DateTimeFormat(pattern = "yyyy-MM")
+    private YearMonth to;
+}
@@ -0,0 +1,9 @@
+package com.webwizards.transformerApp.dto;
+
+import java.time.YearMonth;
+
+/**
+ * One bucket of GET /api/analytics/anomalies. Dimensions that were not grouped by are null.
+ */
+public record AnomalyCount(String source, String region, String transformerNo, YearMonth month, String label,
+                           long count) {}
@@ -0,0 +1,34 @@
+package com.webwizards.transformerApp.dto;
+
+import java.time.LocalDateTime;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import lombok.Data;
+
+/**
+ * Query parameters of GET /api/anomalies/search. Absent fields do not filter.
+ */
+@Data
+public class AnomalySearchCriteria {
+    private String inspectionNumber;
+    private String label;
+    private String severity;
+    private Float minArea;          // areaFrac range, inclusive
+    private Float maxArea;
+    // window in image pixels; anomalies whose coords box overlaps it match
+    private Double x;
+    private Double y;
+    private Double w;
+    private Double h;
+    private boolean includeDeleted;
+    // created_at range [from, to); bounding it lets Postgres skip the monthly partitions outside it
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    public boolean hasWindow() {
+        return x != null || y != null || w != null || h != null;
+    }
+}
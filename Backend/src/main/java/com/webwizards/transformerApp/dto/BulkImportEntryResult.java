@@ -0,0 +1,28 @@
+package com.webwizards.transformerApp.dto;
+
+import lombok.Data;
+
+@Data
+public class BulkImportEntryResult {
+    private String entry;          // name of the entry inside the ZIP
+    private String status;         // imported, duplicate, skipped or failed
+    private Long imageId;
+    private String fileName;
+    private String sha256;
+    private Integer width;
+    private Integer height;
+    private String error;
+
+    public BulkImportEntryResult() {}
+
+    public BulkImportEntryResult(String entry, String status) {
+        this.entry = entry;
+        this.status = status;
+    }
+
+    public static BulkImportEntryResult failed(String entry, String error) {
+        BulkImportEntryResult result = new BulkImportEntryResult(entry, "failed");
+        result.setError(error);
+        return result;
+    }
+}
@@ -0,0 +1,19 @@
+package com.webwizards.transformerApp.dto;
+
+import java.time.Instant;
+
+/**
+ * An analysis change as sent to GET /api/stream subscribers. Changes of one type to one inspection
+ * that a subscriber has not received yet are coalesced: counts add up and {@code at} is the latest.
+ */
+public record ChangeNotification(String type, Long inspectionId, Long transformerId, String region, int count,
+                                 Instant at) {
+
+    public String key() {
+        return type + ":" + inspectionId;
+    }
+
+    public ChangeNotification merge(ChangeNotification later) {
+        return new ChangeNotification(type, inspectionId, transformerId, region, count + later.count, later.at);
+    }
+}
@@ -0,0 +1,23 @@
+package com.webwizards.transformerApp.dto;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import lombok.Data;
+
+/**
+ * Query parameters of GET /api/export/{entity}. Absent filters do not filter.
+ */
+@Data
+public class ExportQuery {
+    private String format = "csv";       // csv, or csv.gz for gzip-compressed CSV
+    // created_at date range in UTC, inclusive
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+    private String region;
+    private String transformerNo;
+    private boolean includeDeleted;      // anomalies only: also export soft-deleted rows
+}
@@ -0,0 +1,10 @@
+package com.webwizards.transformerApp.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Columns of a general record shown in listings; the readings are only loaded with the full record.
+ */
+public record GeneralRecordSummary(Long id, LocalDate date, LocalTime time, String inspectorName,
+                                   String transformerStatus, String recommendedAction) {}
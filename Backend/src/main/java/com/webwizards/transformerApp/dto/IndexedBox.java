@@ -0,0 +1,22 @@
+package com.webwizards.transformerApp.dto;
+
+import com.webwizards.transformerApp.model.InspectionBox;
+
+/**
+ * A stored bounding box as held by the per-transformer spatial index, in image pixels.
+ */
+public record IndexedBox(long id, Long inspectionId, int x, int y, int w, int h, String label, String boxFault) {
+
+    public static IndexedBox of(InspectionBox b) {
+        return new IndexedBox(b.getId(), b.getInspectionRefId(), nz(b.getX()), nz(b.getY()), nz(b.getW()), nz(b.getH()),
+                b.getLabel(), b.getBoxFault());
+    }
+
+    public boolean intersects(int qx1, int qy1, int qx2, int qy2) {
+        return x <= qx2 && x + w >= qx1 && y <= qy2 && y + h >= qy1;
+    }
+
+    private static int nz(Integer v) {
+        return v == null ? 0 : v;
+    }
+}
@@ -0,0 +1,18 @@
+package com.webwizards.transformerApp.dto;
+
+import java.util.List;
+
+import com.webwizards.transformerApp.model.Anomaly;
+import com.webwizards.transformerApp.model.GeneralRecord;
+import com.webwizards.transformerApp.model.Inspection;
+import com.webwizards.transformerApp.model.InspectionBox;
+import com.webwizards.transformerApp.model.MaintenanceRecord;
+import com.webwizards.transformerApp.model.WorkDataSheet;
+
+/**
+ * Everything the UI shows for one inspection, as served by GET /api/inspections/{id}/full.
+ * Anomalies are the active ones; boxes are the stored detector output.
+ */
+public record InspectionDetail(Inspection inspection, List<InspectionImageSummary> images, List<Anomaly> anomalies,
+                               List<InspectionBox> boxes, List<GeneralRecord> generalRecords,
+                               List<MaintenanceRecord> maintenanceRecords, List<WorkDataSheet> workDataSheets) {}
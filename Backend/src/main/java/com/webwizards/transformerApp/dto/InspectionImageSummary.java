@@ -0,0 +1,6 @@
+package com.webwizards.transformerApp.dto;
+
+/**
+ * Columns of an inspection image shown alongside its inspection; the file is fetched from /api/images/{id}.
+ */
+public record InspectionImageSummary(Long id, String fileName, String contentType, Integer width, Integer height) {}
@@ -0,0 +1,9 @@
+package com.webwizards.transformerApp.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * The columns of an inspection that lookups on the write paths need; cached, so it is immutable.
+ */
+public record InspectionRef(Long id, Long transformerId, String transformerNo, LocalDate date, LocalTime time) {}
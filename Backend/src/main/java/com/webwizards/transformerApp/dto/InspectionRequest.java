@@ -1,12 +1,15 @@
 package com.webwizards.transformerApp.dto;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+
 public class InspectionRequest {
     private String branch;
     private String transformerNo;
-    private String date;
-    private String time;
+    private LocalDate date;   // yyyy-MM-dd
+    private LocalTime time;   // HH:mm
     private String status;
-    private String maintainanceDate;
+    private LocalDate maintainanceDate;
 
     // --- Getters and Setters ---
     public String getBranch() { return branch; }
@@ -15,15 +18,15 @@ public class InspectionRequest {
     public String getTransformerNo() { return transformerNo; }
     public void setTransformerNo(String transformerNo) { this.transformerNo = transformerNo; }
 
-    public String getDate() { return date; }
-    public void setDate(String date) { this.date = date; }
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
 
-    public String getTime() { return time; }
-    public void setTime(String time) { this.time = time; }
+    public LocalTime getTime() { return time; }
+    public void setTime(LocalTime time) { this.time = time; }
 
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
 
-    public String getMaintainanceDate() { return maintainanceDate; }
-    public void setMaintainanceDate(String maintainanceDate) { this.maintainanceDate = maintainanceDate; }
+    public LocalDate getMaintainanceDate() { return maintainanceDate; }
+    public void setMaintainanceDate(LocalDate maintainanceDate) { this.maintainanceDate = maintainanceDate; }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.webwizards.transformerApp.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Columns of a maintenance record shown in listings.
+ */
+public record MaintenanceRecordSummary(Long id, LocalTime startTime, LocalTime completionTime, String supervisedBy,
+                                       LocalDate inspectedDate, LocalDate rectifiedDate, Boolean allSpotsCorrect) {}
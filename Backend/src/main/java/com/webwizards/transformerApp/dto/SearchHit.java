@@ -0,0 +1,13 @@
+package com.webwizards.transformerApp.dto;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * A general record or work data sheet matching a text search, with its matching fields highlighted.
+ *
+ * @param type       {@code general-record} or {@code work-data-sheet}
+ * @param highlights excerpt of each non-empty searched field, matched terms wrapped in {@code <mark>}
+ */
+public record SearchHit(String type, Long id, LocalDate date, double rank, Map<String, String> highlights) {
+}
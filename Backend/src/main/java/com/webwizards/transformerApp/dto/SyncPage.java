@@ -0,0 +1,17 @@
+package com.webwizards.transformerApp.dto;
+
+import java.util.List;
+
+import com.webwizards.transformerApp.model.Inspection;
+import com.webwizards.transformerApp.model.Transformer;
+
+/**
+ * One page of GET /api/sync: rows created or updated and ids deleted since the token sent. Pass
+ * {@code token} back as {@code ?since=}; while {@code hasMore} the pass continues, otherwise keep it
+ * for the next sync. A row may occasionally be sent again, so apply changes as upserts.
+ */
+public record SyncPage(List<Transformer> transformers, List<Inspection> inspections, List<Deleted> deleted,
+                       String token, boolean hasMore) {
+
+    public record Deleted(String entity, long id) {}
+}
@@ -0,0 +1,6 @@
+package com.webwizards.transformerApp.dto;
+
+/**
+ * The columns of a transformer that lookups on the write paths need; cached, so it is immutable.
+ */
+public record TransformerRef(Long id, String transformerNo, String region) {}
@@ -0,0 +1,9 @@
+package com.webwizards.transformerApp.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Columns of a work data sheet shown in listings; the FDS readings are only loaded with the full sheet.
+ */
+public record WorkDataSheetSummary(Long id, String gangLeader, LocalDate workDate, String serialNo, String kva,
+                                   String make) {}
@@ -0,0 +1,22 @@
+package com.webwizards.transformerApp.event;
+
+import java.time.Instant;
+
+/**
+ * Published once analysis output or anomalies of an inspection have been written (or, with
+ * write-behind, journaled), for the change stream of GET /api/stream.
+ *
+ * @param inspectionId inspection the change belongs to, or null when it names none
+ * @param count        rows written or removed
+ */
+public record AnalysisChangeEvent(String type, Long inspectionId, int count, Instant at) {
+
+    public static final String ANALYSIS_SAVED = "analysis-saved";
+    public static final String ANALYSIS_COMPLETED = "analysis-completed";
+    public static final String ANOMALIES_INSERTED = "anomalies-inserted";
+    public static final String ANOMALIES_DELETED = "anomalies-deleted";
+
+    public AnalysisChangeEvent(String type, Long inspectionId, int count) {
+        this(type, inspectionId, count, Instant.now());
+    }
+}
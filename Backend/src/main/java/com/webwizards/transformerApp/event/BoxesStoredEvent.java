@@ -0,0 +1,11 @@
+package com.webwizards.transformerApp.event;
+
+import java.util.List;
+
+import com.webwizards.transformerApp.model.InspectionBox;
+
+/**
+ * Published inside the transaction that writes bounding boxes to the database. Listeners that
+ * mirror the table should use {@code @TransactionalEventListener} so they only see committed rows.
+ */
+public record BoxesStoredEvent(List<InspectionBox> boxes) {}
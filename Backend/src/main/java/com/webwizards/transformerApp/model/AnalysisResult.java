@@ -2,12 +2,14 @@ package com.webwizards.transformerApp.model;
 
 import java.time.Instant;
 
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Lob;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 
@@ -22,8 +24,9 @@ public class AnalysisResult {
     // optional link to inspection (can be null)
     private String inspectionId;
 
-    @Lob
-    @Column(columnDefinition = "text")
+    // jsonb, GIN-indexed for containment queries
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "result_json")
     private String resultJson;
 
     private Instant createdAt;
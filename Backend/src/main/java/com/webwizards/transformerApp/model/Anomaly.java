@@ -3,10 +3,17 @@ package com.webwizards.transformerApp.model;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
 @Table(name = "anomalies")
@@ -16,19 +23,33 @@ import lombok.NoArgsConstructor;
 @Builder
 public class Anomaly {
 
+    // pooled sequence so Hibernate can batch inserts; one nextval covers 100 rows
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "anomalies_seq")
+    @SequenceGenerator(name = "anomalies_seq", sequenceName = "anomalies_seq", allocationSize = 100)
     private Long id;
 
     @Column(name = "inspection_number", nullable = false)
     private String inspectionNumber;
 
+    // inspection_number resolved to its inspection when it names one; set the id, the relation is read-only
+    @Column(name = "inspection_ref_id")
+    private Long inspectionRefId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "inspection_ref_id", insertable = false, updatable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Inspection inspection;
+
     @Column(name = "idx", nullable = false)
     private Integer idx;
 
     private String label;
 
-    @Column(columnDefinition = "json")
+    // jsonb [x, y, w, h]; GiST-indexed as a box for window queries
+    @JdbcTypeCode(SqlTypes.JSON)
     private String coords;
 
     private Float confidence;
@@ -41,11 +62,19 @@ public class Anomaly {
 
     private String createdBy;
 
+    @Column(nullable = false)
     private Boolean deleted = false;
 
     private LocalDateTime deletedAt;
 
     private String deletedBy;
 
+    // partition key of the monthly anomalies partitions, so never left null
     private LocalDateTime createdAt = LocalDateTime.now();
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) createdAt = LocalDateTime.now();
+        if (deleted == null) deleted = false;
+    }
 }
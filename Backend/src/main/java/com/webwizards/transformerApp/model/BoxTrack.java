@@ -0,0 +1,101 @@
+package com.webwizards.transformerApp.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * A hotspot followed across inspections of one transformer. x/y/w/h is the latest box of the track.
+ */
+@Entity
+@Table(name = "box_tracks")
+public class BoxTrack {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "transformer_id", nullable = false)
+    private Long transformerId;
+
+    private String label;
+
+    @Column(name = "box_count", nullable = false)
+    private int boxCount;
+
+    @Column(name = "first_box_id", nullable = false)
+    private Long firstBoxId;
+
+    @Column(name = "last_box_id", nullable = false)
+    private Long lastBoxId;
+
+    @Column(name = "last_inspection_id")
+    private Long lastInspectionId;
+
+    private int x;
+    private int y;
+    private int w;
+    private int h;
+
+    @Column(name = "first_area", nullable = false)
+    private int firstArea;
+
+    @Column(name = "last_area", nullable = false)
+    private int lastArea;
+
+    private LocalDateTime firstSeenAt;
+    private LocalDateTime lastSeenAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getTransformerId() { return transformerId; }
+    public void setTransformerId(Long transformerId) { this.transformerId = transformerId; }
+
+    public String getLabel() { return label; }
+    public void setLabel(String label) { this.label = label; }
+
+    public int getBoxCount() { return boxCount; }
+    public void setBoxCount(int boxCount) { this.boxCount = boxCount; }
+
+    public Long getFirstBoxId() { return firstBoxId; }
+    public void setFirstBoxId(Long firstBoxId) { this.firstBoxId = firstBoxId; }
+
+    public Long getLastBoxId() { return lastBoxId; }
+    public void setLastBoxId(Long lastBoxId) { this.lastBoxId = lastBoxId; }
+
+    public Long getLastInspectionId() { return lastInspectionId; }
+    public void setLastInspectionId(Long lastInspectionId) { this.lastInspectionId = lastInspectionId; }
+
+    public int getX() { return x; }
+    public void setX(int x) { this.x = x; }
+
+    public int getY() { return y; }
+    public void setY(int y) { this.y = y; }
+
+    public int getW() { return w; }
+    public void setW(int w) { this.w = w; }
+
+    public int getH() { return h; }
+    public void setH(int h) { this.h = h; }
+
+    public int getFirstArea() { return firstArea; }
+    public void setFirstArea(int firstArea) { this.firstArea = firstArea; }
+
+    public int getLastArea() { return lastArea; }
+    public void setLastArea(int lastArea) { this.lastArea = lastArea; }
+
+    public LocalDateTime getFirstSeenAt() { return firstSeenAt; }
+    public void setFirstSeenAt(LocalDateTime firstSeenAt) { this.firstSeenAt = firstSeenAt; }
+
+    public LocalDateTime getLastSeenAt() { return lastSeenAt; }
+    public void setLastSeenAt(LocalDateTime lastSeenAt) { this.lastSeenAt = lastSeenAt; }
+
+    // latest area over first area; above 1 the hotspot is growing
+    public double getGrowth() { return firstArea == 0 ? 0 : (double) lastArea / firstArea; }
+}
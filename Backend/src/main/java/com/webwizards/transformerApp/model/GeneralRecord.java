@@ -11,6 +11,10 @@ public class GeneralRecord {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // inspection the record was filled in for; records from before the link have none
+    @Column(name = "inspection_id")
+    private Long inspectionId;
+
     private LocalDate date;
     private LocalTime time;
     private String inspectorName;
@@ -39,6 +43,14 @@ public class GeneralRecord {
         this.id = id;
     }
 
+    public Long getInspectionId() {
+        return inspectionId;
+    }
+
+    public void setInspectionId(Long inspectionId) {
+        this.inspectionId = inspectionId;
+    }
+
     public LocalDate getDate() {
         return date;
     }
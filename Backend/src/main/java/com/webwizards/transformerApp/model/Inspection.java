@@ -1,5 +1,11 @@
 package com.webwizards.transformerApp.model;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
 import jakarta.persistence.*;
 
 @Entity
@@ -12,10 +18,20 @@ public class Inspection {
 
     private String branch;
     private String transformerNo;   // transformer reference number
-    private String date;            // you could also use LocalDate
-    private String time;            // you could also use LocalTime
+
+    // transformer matching transformerNo at creation; set the id, the relation is read-only
+    @Column(name = "transformer_id")
+    private Long transformerId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "transformer_id", insertable = false, updatable = false)
+    @JsonIgnore
+    private Transformer transformer;
+    private LocalDate date;
+    @JsonFormat(pattern = "HH:mm")  // what the time input sends and the list shows
+    private LocalTime time;
     private String status;
-    private String maintainanceDate;
+    private LocalDate maintainanceDate;
 
     // --- Getters & Setters ---
     public Long getId() { return id; }
@@ -27,15 +43,20 @@ public class Inspection {
     public String getTransformerNo() { return transformerNo; }
     public void setTransformerNo(String transformerNo) { this.transformerNo = transformerNo; }
 
-    public String getDate() { return date; }
-    public void setDate(String date) { this.date = date; }
+    public Long getTransformerId() { return transformerId; }
+    public void setTransformerId(Long transformerId) { this.transformerId = transformerId; }
+
+    public Transformer getTransformer() { return transformer; }
+
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
 
-    public String getTime() { return time; }
-    public void setTime(String time) { this.time = time; }
+    public LocalTime getTime() { return time; }
+    public void setTime(LocalTime time) { this.time = time; }
 
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
 
-    public String getMaintainanceDate() { return maintainanceDate; }
-    public void setMaintainanceDate(String maintainanceDate) { this.maintainanceDate = maintainanceDate; }
+    public LocalDate getMaintainanceDate() { return maintainanceDate; }
+    public void setMaintainanceDate(LocalDate maintainanceDate) { this.maintainanceDate = maintainanceDate; }
 }
\ No newline at end of file
@@ -2,24 +2,41 @@ package com.webwizards.transformerApp.model;
 
 import java.time.Instant;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "bounding_boxes")
 public class InspectionBox {
 
+    // pooled sequence so Hibernate can batch inserts; one nextval covers 100 rows
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bounding_boxes_seq")
+    @SequenceGenerator(name = "bounding_boxes_seq", sequenceName = "bounding_boxes_seq", allocationSize = 100)
     private Long id;
 
     private String inspectionId; // repeated per box
 
+    // inspectionId resolved to its inspection when it names one; set the id, the relation is read-only
+    @Column(name = "inspection_ref_id")
+    private Long inspectionRefId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "inspection_ref_id", insertable = false, updatable = false)
+    @JsonIgnore
+    private Inspection inspection;
+
     @Column(name = "box_index_id")
     private String boxIndexId;
 
@@ -45,12 +62,21 @@ public class InspectionBox {
 
     private Instant createdAt;
 
+    // hotspot track this box continues; assigned by HotspotTrackingService after the box is stored
+    @Column(name = "track_id")
+    private Long trackId;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
     public String getInspectionId() { return inspectionId; }
     public void setInspectionId(String inspectionId) { this.inspectionId = inspectionId; }
 
+    public Long getInspectionRefId() { return inspectionRefId; }
+    public void setInspectionRefId(Long inspectionRefId) { this.inspectionRefId = inspectionRefId; }
+
+    public Inspection getInspection() { return inspection; }
+
     public Integer getX() { return x; }
     public void setX(Integer x) { this.x = x; }
 
@@ -81,6 +107,9 @@ public class InspectionBox {
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
 
+    public Long getTrackId() { return trackId; }
+    public void setTrackId(Long trackId) { this.trackId = trackId; }
+
     @PrePersist
     public void prePersist() { if (createdAt == null) createdAt = Instant.now(); }
 }
@@ -1,5 +1,7 @@
 package com.webwizards.transformerApp.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import jakarta.persistence.*;
 
 @Entity
@@ -14,8 +16,14 @@ public class InspectionImage {
     private String filePath;
     private String contentType;
 
-    @ManyToOne
+    // pixel dimensions recorded when the raster sidecar is written at upload time
+    private Integer width;
+    private Integer height;
+
+    // lazy: single-image reads only need the file; listings fetch it with an entity graph
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "inspection_id", nullable = false)
+    @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
     private Inspection inspection;
 
     // Getters & Setters
@@ -31,6 +39,12 @@ public class InspectionImage {
     public String getContentType() { return contentType; }
     public void setContentType(String contentType) { this.contentType = contentType; }
 
+    public Integer getWidth() { return width; }
+    public void setWidth(Integer width) { this.width = width; }
+
+    public Integer getHeight() { return height; }
+    public void setHeight(Integer height) { this.height = height; }
+
     public Inspection getInspection() { return inspection; }
     public void setInspection(Inspection inspection) { this.inspection = inspection; }
 }
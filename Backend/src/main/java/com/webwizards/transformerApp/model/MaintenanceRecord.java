@@ -11,6 +11,10 @@ public class MaintenanceRecord {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // inspection the record was filled in for; records from before the link have none
+    @Column(name = "inspection_id")
+    private Long inspectionId;
+
     private LocalTime startTime;
     private LocalTime completionTime;
     private String supervisedBy;
@@ -39,6 +43,14 @@ public class MaintenanceRecord {
         this.id = id;
     }
 
+    public Long getInspectionId() {
+        return inspectionId;
+    }
+
+    public void setInspectionId(Long inspectionId) {
+        this.inspectionId = inspectionId;
+    }
+
     public LocalTime getStartTime() {
         return startTime;
     }
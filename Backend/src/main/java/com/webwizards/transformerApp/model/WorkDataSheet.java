@@ -11,6 +11,10 @@ public class WorkDataSheet {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // inspection the record was filled in for; records from before the link have none
+    @Column(name = "inspection_id")
+    private Long inspectionId;
+
     private String gangLeader;
     private LocalDate workDate;
     private LocalTime jobStartedTime;
@@ -45,6 +49,14 @@ public class WorkDataSheet {
         this.id = id;
     }
 
+    public Long getInspectionId() {
+        return inspectionId;
+    }
+
+    public void setInspectionId(Long inspectionId) {
+        this.inspectionId = inspectionId;
+    }
+
     public String getGangLeader() {
         return gangLeader;
     }
@@ -9,4 +9,8 @@ import com.webwizards.transformerApp.model.Anomaly;
 public interface AnomalyRepository extends JpaRepository<Anomaly, Long> {
     List<Anomaly> findByInspectionNumberAndIdx(String inspectionNumber, Integer idx);
     List<Anomaly> findByInspectionNumber(String inspectionNumber);
+
+    // active rows only; "deleted = false" is rendered as a literal, so the partial indexes apply
+    List<Anomaly> findByInspectionNumberAndIdxAndDeletedFalse(String inspectionNumber, Integer idx);
+    List<Anomaly> findByInspectionNumberAndDeletedFalseOrderByIdx(String inspectionNumber);
 }
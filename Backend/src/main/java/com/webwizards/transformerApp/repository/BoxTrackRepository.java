@@ -0,0 +1,11 @@
+package com.webwizards.transformerApp.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.webwizards.transformerApp.model.BoxTrack;
+
+public interface BoxTrackRepository extends JpaRepository<BoxTrack, Long> {
+    List<BoxTrack> findByTransformerIdOrderByIdAsc(Long transformerId);
+}
@@ -1,7 +1,18 @@
 package com.webwizards.transformerApp.repository;
 
+import java.util.List;
+
+import com.webwizards.transformerApp.dto.GeneralRecordSummary;
 import com.webwizards.transformerApp.model.GeneralRecord;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface GeneralRecordRepository extends JpaRepository<GeneralRecord, Long> {
-}
\ No newline at end of file
+
+    // keyset page of summaries; selects only the record's columns, no managed entities
+    @Transactional(readOnly = true)
+    List<GeneralRecordSummary> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    List<GeneralRecord> findByInspectionIdOrderByIdAsc(Long inspectionId);
+}
@@ -1,8 +1,12 @@
 package com.webwizards.transformerApp.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.webwizards.transformerApp.model.InspectionBox;
 
 public interface InspectionBoxRepository extends JpaRepository<InspectionBox, Long> {
+
+    List<InspectionBox> findByInspectionRefIdOrderByIdAsc(Long inspectionRefId);
 }
@@ -1,7 +1,19 @@
 package com.webwizards.transformerApp.repository;
 
+import java.util.List;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import com.webwizards.transformerApp.dto.InspectionImageSummary;
 import com.webwizards.transformerApp.model.InspectionImage;
 
-public interface InspectionImageRepository extends JpaRepository<InspectionImage, Long> {}
+public interface InspectionImageRepository extends JpaRepository<InspectionImage, Long> {
+
+    // images and their inspection in one joined query
+    @EntityGraph(attributePaths = "inspection")
+    List<InspectionImage> findByInspectionIdOrderByIdAsc(Long inspectionId);
+
+    // the image columns only, for documents that already carry the inspection
+    List<InspectionImageSummary> findSummariesByInspectionIdOrderByIdAsc(Long inspectionId);
+}
@@ -1,6 +1,30 @@
 package com.webwizards.transformerApp.repository;
 
+import java.util.Optional;
+import java.util.function.Function;
+
+import com.webwizards.transformerApp.config.CacheNames;
+import com.webwizards.transformerApp.dto.InspectionRef;
 import com.webwizards.transformerApp.model.Inspection;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface InspectionRepository extends JpaRepository<Inspection, Long>, JpaSpecificationExecutor<Inspection> {
+
+    // looked up on every analysis save and box insert; evicted by MainController.addInspection
+    @Cacheable(cacheNames = CacheNames.INSPECTIONS, key = "#p0")
+    Optional<InspectionRef> findRefById(Long id);
+
+    // only hits are cached, so an inspection created outside the API is seen on its first lookup
+    @Override
+    @Cacheable(cacheNames = CacheNames.INSPECTION_EXISTS, key = "#p0", unless = "!#result")
+    boolean existsById(Long id);
 
-public interface InspectionRepository extends JpaRepository<Inspection, Long> {}
+    // keyset pages of GET /api/inspections; read-only session, so no dirty-checking snapshots for the page
+    @Override
+    @Transactional(readOnly = true)
+    <S extends Inspection, R> R findBy(Specification<Inspection> spec, Function<? super SpecificationFluentQuery<S>, R> queryFunction);
+}
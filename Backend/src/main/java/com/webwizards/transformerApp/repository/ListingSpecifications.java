@@ -0,0 +1,52 @@
+package com.webwizards.transformerApp.repository;
+
+import java.time.LocalDate;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.webwizards.transformerApp.model.Inspection;
+import com.webwizards.transformerApp.model.Transformer;
+
+/**
+ * Filters for the keyset-paginated list endpoints. Only the filters that are present become
+ * predicates, so the planner can use the matching (filter, id) index.
+ */
+public final class ListingSpecifications {
+
+    private ListingSpecifications() {}
+
+    public static Specification<Transformer> transformers(Long afterId, String region, String type, String transformerNoPrefix) {
+        Specification<Transformer> spec = idAfter(afterId);
+        if (region != null && !region.isBlank()) spec = spec.and((root, q, cb) -> cb.equal(root.get("region"), region));
+        if (type != null && !type.isBlank()) spec = spec.and((root, q, cb) -> cb.equal(root.get("type"), type));
+        if (transformerNoPrefix != null && !transformerNoPrefix.isBlank()) {
+            spec = spec.and((root, q, cb) -> cb.like(root.get("transformerNo"), escapeLike(transformerNoPrefix) + "%", '\\'));
+        }
+        return spec;
+    }
+
+    public static Specification<Inspection> inspections(Long afterId, String branch, String status, String transformerNoPrefix,
+                                                        LocalDate from, LocalDate to, String region) {
+        Specification<Inspection> spec = idAfter(afterId);
+        // inclusive date range; served by idx_inspections_date
+        if (from != null) spec = spec.and((root, q, cb) -> cb.greaterThanOrEqualTo(root.get("date"), from));
+        if (to != null) spec = spec.and((root, q, cb) -> cb.lessThanOrEqualTo(root.get("date"), to));
+        if (region != null && !region.isBlank()) {
+            spec = spec.and((root, q, cb) -> cb.equal(root.join("transformer").get("region"), region));
+        }
+        if (branch != null && !branch.isBlank()) spec = spec.and((root, q, cb) -> cb.equal(root.get("branch"), branch));
+        if (status != null && !status.isBlank()) spec = spec.and((root, q, cb) -> cb.equal(root.get("status"), status));
+        if (transformerNoPrefix != null && !transformerNoPrefix.isBlank()) {
+            spec = spec.and((root, q, cb) -> cb.like(root.get("transformerNo"), escapeLike(transformerNoPrefix) + "%", '\\'));
+        }
+        return spec;
+    }
+
+    private static <T> Specification<T> idAfter(Long afterId) {
+        return (root, q, cb) -> afterId == null ? cb.conjunction() : cb.greaterThan(root.get("id"), afterId);
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,7 +1,18 @@
 package com.webwizards.transformerApp.repository;
 
+import java.util.List;
+
+import com.webwizards.transformerApp.dto.MaintenanceRecordSummary;
 import com.webwizards.transformerApp.model.MaintenanceRecord;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface MaintenanceRecordRepository extends JpaRepository<MaintenanceRecord, Long> {
-}
\ No newline at end of file
+
+    // keyset page of summaries; selects only the record's columns, no managed entities
+    @Transactional(readOnly = true)
+    List<MaintenanceRecordSummary> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    List<MaintenanceRecord> findByInspectionIdOrderByIdAsc(Long inspectionId);
+}
@@ -1,7 +1,28 @@
 package com.webwizards.transformerApp.repository;
 
+import java.util.Optional;
+import java.util.function.Function;
+
+import com.webwizards.transformerApp.config.CacheNames;
+import com.webwizards.transformerApp.dto.TransformerRef;
 import com.webwizards.transformerApp.model.Transformer;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface TransformerRepository extends JpaRepository<Transformer, Long>, JpaSpecificationExecutor<Transformer> {
+
+    // evicted by MainController.addTransformer
+    @Cacheable(cacheNames = CacheNames.TRANSFORMERS, key = "#p0")
+    Optional<TransformerRef> findRefById(Long id);
+
+    @Cacheable(cacheNames = CacheNames.TRANSFORMERS_BY_NO, key = "#p0")
+    Optional<TransformerRef> findFirstByTransformerNoOrderByIdAsc(String transformerNo);
 
-public interface TransformerRepository extends JpaRepository<Transformer, Long> {
-}
\ No newline at end of file
+    // keyset pages of GET /api/transformers; read-only session, so no dirty-checking snapshots for the page
+    @Override
+    @Transactional(readOnly = true)
+    <S extends Transformer, R> R findBy(Specification<Transformer> spec, Function<? super SpecificationFluentQuery<S>, R> queryFunction);
+}
@@ -1,7 +1,18 @@
 package com.webwizards.transformerApp.repository;
 
+import java.util.List;
+
+import com.webwizards.transformerApp.dto.WorkDataSheetSummary;
 import com.webwizards.transformerApp.model.WorkDataSheet;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface WorkDataSheetRepository extends JpaRepository<WorkDataSheet, Long> {
-}
\ No newline at end of file
+
+    // keyset page of summaries; selects only the record's columns, no managed entities
+    @Transactional(readOnly = true)
+    List<WorkDataSheetSummary> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    List<WorkDataSheet> findByInspectionIdOrderByIdAsc(Long inspectionId);
+}
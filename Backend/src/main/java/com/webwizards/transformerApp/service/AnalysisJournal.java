@@ -0,0 +1,232 @@
+package com.webwizards.transformerApp.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webwizards.transformerApp.model.Anomaly;
+import com.webwizards.transformerApp.model.InspectionBox;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Local append-only journal for analysis output waiting to be written to the database.
+ *
+ * Entries are JSON lines in numbered segment files, fsynced before {@link #append} returns. The
+ * sequence of the last entry written to the database is kept in a checkpoint file; segments whose
+ * entries are all at or below the checkpoint are deleted. On startup {@link #recover()} returns
+ * every entry after the checkpoint and drops a torn last line left by a crash mid-write.
+ */
+@Component
+public class AnalysisJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalysisJournal.class);
+    private static final String SEGMENT_PREFIX = "analysis-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    public static final String KIND_BOXES = "boxes";
+    public static final String KIND_ANOMALIES = "anomalies";
+
+    /**
+     * One acknowledged write: the boxes of an analysis result or a batch of anomalies
+     */
+    public static class Entry {
+        private long sequence;
+        private String kind;
+        private List<InspectionBox> boxes;
+        private List<Anomaly> anomalies;
+
+        public Entry() {}
+
+        public static Entry boxes(List<InspectionBox> boxes) {
+            Entry e = new Entry();
+            e.kind = KIND_BOXES;
+            e.boxes = boxes;
+            return e;
+        }
+
+        public static Entry anomalies(List<Anomaly> anomalies) {
+            Entry e = new Entry();
+            e.kind = KIND_ANOMALIES;
+            e.anomalies = anomalies;
+            return e;
+        }
+
+        public long getSequence() { return sequence; }
+        public void setSequence(long sequence) { this.sequence = sequence; }
+
+        public String getKind() { return kind; }
+        public void setKind(String kind) { this.kind = kind; }
+
+        public List<InspectionBox> getBoxes() { return boxes; }
+        public void setBoxes(List<InspectionBox> boxes) { this.boxes = boxes; }
+
+        public List<Anomaly> getAnomalies() { return anomalies; }
+        public void setAnomalies(List<Anomaly> anomalies) { this.anomalies = anomalies; }
+
+        public int size() {
+            return KIND_BOXES.equals(kind) ? (boxes == null ? 0 : boxes.size()) : (anomalies == null ? 0 : anomalies.size());
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Path dir;
+    private final long segmentBytes;
+
+    // segment number -> highest sequence written to it
+    private final TreeMap<Long, Long> segments = new TreeMap<>();
+    private FileChannel active;
+    private long activeSegment;
+    private long nextSequence = 1;
+    private long checkpoint;
+
+    public AnalysisJournal(ObjectMapper objectMapper,
+                           @Value("${transformer.write-behind.journal-dir:${user.dir}/journal}") String dir,
+                           @Value("${transformer.write-behind.segment-size:16MB}") DataSize segmentSize) {
+        this.objectMapper = objectMapper;
+        this.dir = Paths.get(dir).toAbsolutePath().normalize();
+        this.segmentBytes = segmentSize.toBytes();
+    }
+
+    /**
+     * Reads the journal and returns all entries that were not flushed before the last shutdown
+     */
+    public synchronized List<Entry> recover() throws IOException {
+        Files.createDirectories(dir);
+        Path checkpointFile = dir.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpointFile)) {
+            checkpoint = Long.parseLong(Files.readString(checkpointFile).trim());
+        }
+        nextSequence = checkpoint + 1;
+
+        List<Entry> pending = new ArrayList<>();
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                    && p.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            long segment = segmentNumber(file);
+            long maxSeq = 0;
+            long goodBytes = 0;
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Entry entry;
+                    try {
+                        entry = objectMapper.readValue(line, Entry.class);
+                    } catch (IOException e) {
+                        log.warn("Dropping torn journal record at the end of {}", file);
+                        break;
+                    }
+                    goodBytes += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                    maxSeq = Math.max(maxSeq, entry.getSequence());
+                    nextSequence = Math.max(nextSequence, entry.getSequence() + 1);
+                    if (entry.getSequence() > checkpoint) pending.add(entry);
+                }
+            }
+            if (goodBytes < Files.size(file)) {
+                try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    ch.truncate(goodBytes);
+                }
+            }
+            segments.put(segment, maxSeq);
+        }
+        activeSegment = segments.isEmpty() ? 1 : segments.lastKey();
+        openActive();
+        deleteFlushedSegments();
+        return pending;
+    }
+
+    /**
+     * Assigns the next sequence number to the entry and writes it durably
+     */
+    public synchronized long append(Entry entry) throws IOException {
+        entry.setSequence(nextSequence);
+        byte[] line = (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+        if (active.size() > 0 && active.size() + line.length > segmentBytes) {
+            active.close();
+            activeSegment++;
+            openActive();
+        }
+        ByteBuffer buf = ByteBuffer.wrap(line);
+        while (buf.hasRemaining()) active.write(buf);
+        active.force(false);
+        segments.put(activeSegment, nextSequence);
+        return nextSequence++;
+    }
+
+    /**
+     * Records that every entry up to and including {@code sequence} is in the database
+     */
+    public synchronized void checkpoint(long sequence) throws IOException {
+        if (sequence <= checkpoint) return;
+        Path tmp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(tmp, Long.toString(sequence));
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ch.force(true);
+        }
+        Files.move(tmp, dir.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = sequence;
+        deleteFlushedSegments();
+    }
+
+    /**
+     * Moves an entry that the database keeps rejecting aside so it does not block the journal
+     */
+    public synchronized void deadLetter(Entry entry, String reason) throws IOException {
+        Path file = dir.resolve("dead-letter" + SEGMENT_SUFFIX);
+        String line = objectMapper.writeValueAsString(entry) + "\n";
+        Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        log.error("Journal entry {} moved to {}: {}", entry.getSequence(), file, reason);
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        if (active != null) active.close();
+    }
+
+    private void openActive() throws IOException {
+        active = FileChannel.open(segmentPath(activeSegment), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        segments.putIfAbsent(activeSegment, 0L);
+    }
+
+    private void deleteFlushedSegments() throws IOException {
+        // never delete the segment currently being appended to
+        while (segments.size() > 1) {
+            var first = segments.firstEntry();
+            if (first.getValue() > checkpoint) break;
+            Files.deleteIfExists(segmentPath(first.getKey()));
+            segments.pollFirstEntry();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return dir.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
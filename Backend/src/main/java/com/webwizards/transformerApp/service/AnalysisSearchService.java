@@ -0,0 +1,122 @@
+package com.webwizards.transformerApp.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webwizards.transformerApp.dto.AnalysisResultSearchCriteria;
+import com.webwizards.transformerApp.dto.AnomalySearchCriteria;
+import com.webwizards.transformerApp.model.AnalysisResult;
+import com.webwizards.transformerApp.model.Anomaly;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+/**
+ * Filters anomalies and raw analysis results in Postgres.
+ *
+ * Only the criteria that are present become predicates, so each query can use its index: the
+ * GiST index on {@code anomaly_box(coords)} for coordinate windows and the GIN index on
+ * {@code analysis_results.result_json} for containment, and a created_at range prunes the monthly
+ * anomalies partitions. Results are keyset-paged by id.
+ */
+@Service
+public class AnalysisSearchService {
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public AnalysisSearchService(EntityManager entityManager, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<Anomaly> searchAnomalies(AnomalySearchCriteria c, Long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT a.* FROM anomalies a WHERE 1 = 1");
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (afterId != null) where(sql, params, "a.id > :afterId", "afterId", afterId);
+        if (notBlank(c.getInspectionNumber())) {
+            where(sql, params, "a.inspection_number = :inspectionNumber", "inspectionNumber", c.getInspectionNumber());
+        }
+        if (notBlank(c.getLabel())) where(sql, params, "a.label = :label", "label", c.getLabel());
+        if (notBlank(c.getSeverity())) where(sql, params, "a.severity = :severity", "severity", c.getSeverity());
+        if (c.getMinArea() != null) where(sql, params, "a.area_frac >= :minArea", "minArea", c.getMinArea());
+        if (c.getMaxArea() != null) where(sql, params, "a.area_frac <= :maxArea", "maxArea", c.getMaxArea());
+        if (c.hasWindow()) {
+            if (c.getX() == null || c.getY() == null || c.getW() == null || c.getH() == null) {
+                throw new IllegalArgumentException("x, y, w and h are required for a window query");
+            }
+            sql.append(" AND anomaly_box(a.coords) && box(point(:x1, :y1), point(:x2, :y2))");
+            params.put("x1", c.getX());
+            params.put("y1", c.getY());
+            params.put("x2", c.getX() + c.getW());
+            params.put("y2", c.getY() + c.getH());
+        }
+        if (c.getFrom() != null) where(sql, params, "a.created_at >= :from", "from", c.getFrom());
+        if (c.getTo() != null) where(sql, params, "a.created_at < :to", "to", c.getTo());
+        if (!c.isIncludeDeleted()) sql.append(" AND a.deleted = false");  // matches the partial indexes' predicate
+        sql.append(" ORDER BY a.id LIMIT :limit");
+        params.put("limit", limit);
+
+        Query query = entityManager.createNativeQuery(sql.toString(), Anomaly.class);
+        params.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<AnalysisResult> searchResults(AnalysisResultSearchCriteria c, Long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT r.* FROM analysis_results r WHERE 1 = 1");
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (afterId != null) where(sql, params, "r.id > :afterId", "afterId", afterId);
+        if (notBlank(c.getInspectionId())) {
+            where(sql, params, "r.inspection_id = :inspectionId", "inspectionId", c.getInspectionId());
+        }
+        Map<String, Object> box = new LinkedHashMap<>();
+        if (notBlank(c.getLabel())) box.put("label", c.getLabel());
+        if (notBlank(c.getBoxFault())) box.put("boxFault", c.getBoxFault());
+        if (!box.isEmpty()) {
+            // {"boxInfo": [{...}]} matches results with at least one box having all of these fields
+            where(sql, params, "r.result_json @> CAST(:boxFilter AS jsonb)", "boxFilter",
+                    toJson(Map.of("boxInfo", List.of(box))));
+        }
+        if (notBlank(c.getContains())) {
+            where(sql, params, "r.result_json @> CAST(:contains AS jsonb)", "contains", normalize(c.getContains()));
+        }
+        sql.append(" ORDER BY r.id LIMIT :limit");
+        params.put("limit", limit);
+
+        Query query = entityManager.createNativeQuery(sql.toString(), AnalysisResult.class);
+        params.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    private String normalize(String json) {
+        try {
+            return objectMapper.writeValueAsString(objectMapper.readTree(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("contains must be valid JSON");
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void where(StringBuilder sql, Map<String, Object> params, String predicate, String name, Object value) {
+        sql.append(" AND ").append(predicate);
+        params.put(name, value);
+    }
+
+    private static boolean notBlank(String s) {
+        return s != null && !s.isBlank();
+    }
+}
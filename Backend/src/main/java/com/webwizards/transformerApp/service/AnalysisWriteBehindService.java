@@ -0,0 +1,402 @@
+package com.webwizards.transformerApp.service;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webwizards.transformerApp.event.BoxesStoredEvent;
+import com.webwizards.transformerApp.model.Anomaly;
+import com.webwizards.transformerApp.model.InspectionBox;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Write-behind persistence for analysis output (bounding boxes and anomalies).
+ *
+ * A write is acknowledged as soon as it is durable in the {@link AnalysisJournal}, before it is in
+ * the database. Ids are taken from the same pooled sequences Hibernate uses, so callers still get
+ * real ids back, but a read through JPA or JDBC may not see the rows yet: code that must observe
+ * earlier analysis output (reads of a whole inspection, deletes, soft deletes) calls
+ * {@link #awaitFlushed()} first. Because of that contract the service is off unless
+ * {@code transformer.write-behind.enabled} is set.
+ *
+ * A scheduled flusher drains the journal in large batches with PostgreSQL {@code COPY ... FROM
+ * STDIN} into a temporary table, then inserts from it with {@code ON CONFLICT DO NOTHING}, so
+ * replaying an entry after a crash skips rows that already made it and never overwrites later
+ * changes to them (soft deletes, track ids). Failed batches are retried with exponential backoff,
+ * and entries the database rejects outright are moved to a dead-letter file.
+ *
+ * Entries recovered from the journal at startup are written before the service is ready, whether
+ * or not write-behind is enabled; they were acknowledged by an earlier run that may have had it on.
+ */
+@Service
+public class AnalysisWriteBehindService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalysisWriteBehindService.class);
+    private static final int SEQUENCE_ALLOCATION = 100;
+
+    static final String BOX_COLUMNS =
+            "id, inspection_id, inspection_ref_id, box_index_id, x, y, w, h, area_frac, aspect, overlap_center_frac, label, box_fault, created_at";
+    static final String ANOMALY_COLUMNS =
+            "id, inspection_number, inspection_ref_id, idx, label, coords, confidence, severity, area_frac, is_manual, created_by, deleted, deleted_at, deleted_by, created_at";
+
+    private final AnalysisJournal journal;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final AnomalyRollupService rollups;
+    private final ApplicationEventPublisher events;
+    private final boolean enabled;
+    private final int maxBatchRows;
+    private final int maxPendingRows;
+    private final long maxBackoffMs;
+
+    private final Deque<AnalysisJournal.Entry> pending = new ArrayDeque<>();
+    private int pendingRows;
+    // written under flushLock, read by flush() without it to skip attempts during backoff
+    private volatile int failures;
+    private volatile long nextAttemptAt;
+    private final Object flushLock = new Object();
+
+    public AnalysisWriteBehindService(AnalysisJournal journal, JdbcTemplate jdbcTemplate, DataSource dataSource,
+                                      TransactionTemplate transactionTemplate, AnomalyRollupService rollups,
+                                      ApplicationEventPublisher events,
+                                      @Value("${transformer.write-behind.enabled:false}") boolean enabled,
+                                      @Value("${transformer.write-behind.batch-rows:5000}") int maxBatchRows,
+                                      @Value("${transformer.write-behind.max-pending-rows:200000}") int maxPendingRows,
+                                      @Value("${transformer.write-behind.max-backoff-ms:60000}") long maxBackoffMs) {
+        this.journal = journal;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.transactionTemplate = transactionTemplate;
+        this.rollups = rollups;
+        this.events = events;
+        this.enabled = enabled;
+        this.maxBatchRows = maxBatchRows;
+        this.maxPendingRows = maxPendingRows;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    @PostConstruct
+    void replay() throws IOException {
+        List<AnalysisJournal.Entry> recovered = journal.recover();
+        synchronized (this) {
+            for (AnalysisJournal.Entry e : recovered) {
+                pending.addLast(e);
+                pendingRows += e.size();
+            }
+        }
+        if (recovered.isEmpty()) return;
+        log.info("Replaying {} unflushed journal entries", recovered.size());
+        synchronized (flushLock) {
+            while (hasPending()) {
+                if (flushBatch()) continue;
+                // with write-behind off nothing else would ever write them
+                if (!enabled) {
+                    throw new IllegalStateException("Unflushed analysis output in the journal could not be written to the database");
+                }
+                log.warn("Leaving unflushed journal entries to the scheduled flusher");
+                return;
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Assigns ids, journals the boxes and returns once they are durable
+     */
+    public List<Long> submitBoxes(List<InspectionBox> boxes) throws IOException {
+        if (boxes.isEmpty()) return List.of();
+        List<Long> ids = allocateIds("bounding_boxes_seq", boxes.size());
+        for (int i = 0; i < boxes.size(); i++) {
+            InspectionBox b = boxes.get(i);
+            b.setId(ids.get(i));
+            if (b.getCreatedAt() == null) b.setCreatedAt(Instant.now());
+        }
+        enqueue(AnalysisJournal.Entry.boxes(boxes));
+        return ids;
+    }
+
+    /**
+     * Assigns ids, journals the anomalies and returns once they are durable
+     */
+    public List<Long> submitAnomalies(List<Anomaly> anomalies) throws IOException {
+        if (anomalies.isEmpty()) return List.of();
+        List<Long> ids = allocateIds("anomalies_seq", anomalies.size());
+        for (int i = 0; i < anomalies.size(); i++) {
+            Anomaly a = anomalies.get(i);
+            a.setId(ids.get(i));
+            if (a.getCreatedAt() == null) a.setCreatedAt(LocalDateTime.now());
+        }
+        enqueue(AnalysisJournal.Entry.anomalies(anomalies));
+        return ids;
+    }
+
+    /**
+     * Flushes everything acknowledged so far. Used before reads and deletes that must see
+     * earlier writes.
+     */
+    public void awaitFlushed() {
+        if (!enabled) return;
+        synchronized (this) {
+            if (pending.isEmpty()) return;
+        }
+        synchronized (flushLock) {
+            while (hasPending()) {
+                if (!flushBatch()) {
+                    throw new IllegalStateException("Pending analysis output could not be written to the database");
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${transformer.write-behind.flush-interval-ms:250}")
+    public void flush() {
+        if (!enabled || System.currentTimeMillis() < nextAttemptAt) return;
+        synchronized (flushLock) {
+            while (hasPending() && flushBatch()) { }
+        }
+    }
+
+    private synchronized boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    private void enqueue(AnalysisJournal.Entry entry) throws IOException {
+        synchronized (this) {
+            if (pendingRows + entry.size() > maxPendingRows) {
+                throw new IllegalStateException("Write-behind queue is full; the database is not keeping up");
+            }
+            // append under the same lock so queue order matches journal order
+            journal.append(entry);
+            pending.addLast(entry);
+            pendingRows += entry.size();
+        }
+    }
+
+    /**
+     * Writes one batch of pending entries; returns false if the batch failed and should be retried
+     */
+    private boolean flushBatch() {
+        List<AnalysisJournal.Entry> batch = new ArrayList<>();
+        synchronized (this) {
+            int rows = 0;
+            for (AnalysisJournal.Entry e : pending) {
+                if (!batch.isEmpty() && rows + e.size() > maxBatchRows) break;
+                batch.add(e);
+                rows += e.size();
+            }
+        }
+        if (batch.isEmpty()) return true;
+
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            if (!isDataError(e)) {
+                backoff(e);
+                return false;
+            }
+            if (batch.size() > 1) {
+                // isolate the bad entry by writing the batch one entry at a time
+                return flushIndividually(batch);
+            }
+            deadLetter(batch.get(0), e);
+        }
+        complete(batch);
+        return true;
+    }
+
+    private boolean flushIndividually(List<AnalysisJournal.Entry> batch) {
+        for (AnalysisJournal.Entry entry : batch) {
+            try {
+                write(List.of(entry));
+            } catch (RuntimeException e) {
+                if (!isDataError(e)) {
+                    backoff(e);
+                    return false;
+                }
+                deadLetter(entry, e);
+            }
+            complete(List.of(entry));
+        }
+        return true;
+    }
+
+    private void complete(List<AnalysisJournal.Entry> done) {
+        long last;
+        synchronized (this) {
+            for (AnalysisJournal.Entry e : done) {
+                pending.pollFirst();
+                pendingRows -= e.size();
+            }
+            last = done.get(done.size() - 1).getSequence();
+        }
+        failures = 0;
+        nextAttemptAt = 0;
+        try {
+            journal.checkpoint(last);
+        } catch (IOException e) {
+            // rows are in the database; a stale checkpoint only means an idempotent replay later
+            log.warn("Could not write journal checkpoint {}: {}", last, e.getMessage());
+        }
+    }
+
+    private void write(List<AnalysisJournal.Entry> batch) {
+        List<InspectionBox> boxes = new ArrayList<>();
+        List<Anomaly> anomalies = new ArrayList<>();
+        for (AnalysisJournal.Entry e : batch) {
+            if (AnalysisJournal.KIND_BOXES.equals(e.getKind()) && e.getBoxes() != null) boxes.addAll(e.getBoxes());
+            if (AnalysisJournal.KIND_ANOMALIES.equals(e.getKind()) && e.getAnomalies() != null) anomalies.addAll(e.getAnomalies());
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Connection con = DataSourceUtils.getConnection(dataSource);
+            try {
+                if (!boxes.isEmpty()) {
+                    Set<Long> inserted = copy(con, AnomalyRollupService.BOUNDING_BOXES, BOX_COLUMNS,
+                            CreatedAtRange.ofInstants(boxes.stream().map(InspectionBox::getCreatedAt).toList()), boxCsv(boxes));
+                    if (!inserted.isEmpty()) {
+                        // listeners run after this transaction commits
+                        events.publishEvent(new BoxesStoredEvent(boxes.stream().filter(b -> inserted.contains(b.getId())).toList()));
+                    }
+                }
+                if (!anomalies.isEmpty()) {
+                    copy(con, AnomalyRollupService.ANOMALIES, ANOMALY_COLUMNS,
+                            CreatedAtRange.ofLocal(anomalies.stream().map(Anomaly::getCreatedAt).toList()), anomalyCsv(anomalies));
+                }
+            } catch (SQLException | IOException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Copies the rows into a transaction-scoped staging table and inserts the ones the table does
+     * not have yet
+     * @return ids of the rows actually inserted
+     */
+    private Set<Long> copy(Connection con, String table, String columns, CreatedAtRange createdAt, String csv)
+            throws SQLException, IOException {
+        String staging = "write_behind_" + table;
+        try (Statement st = con.createStatement()) {
+            st.execute("CREATE TEMP TABLE " + staging + " (LIKE " + table + " INCLUDING DEFAULTS) ON COMMIT DROP");
+        }
+        CopyManager copyManager = con.unwrap(PGConnection.class).getCopyAPI();
+        copyManager.copyIn("COPY " + staging + " (" + columns + ") FROM STDIN WITH (FORMAT csv)", new StringReader(csv));
+
+        // an entry may already be in the table if we crashed before the checkpoint; those rows are
+        // left as they are, including any soft delete or tracking applied since
+        Set<Long> inserted = new HashSet<>();
+        try (PreparedStatement ps = con.prepareStatement(
+                "INSERT INTO " + table + " (" + columns + ") SELECT " + columns + " FROM " + staging
+                        + " ON CONFLICT (id, created_at) DO NOTHING RETURNING id");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) inserted.add(rs.getLong(1));
+        }
+        // only rows this batch added are counted in
+        rollups.adjust(table, inserted, createdAt, 1);
+        return inserted;
+    }
+
+    private String boxCsv(List<InspectionBox> boxes) {
+        StringBuilder sb = new StringBuilder(boxes.size() * 96);
+        for (InspectionBox b : boxes) {
+            row(sb, b.getId(), b.getInspectionId(), b.getInspectionRefId(), b.getBoxIndexId(), b.getX(), b.getY(), b.getW(), b.getH(),
+                    b.getAreaFrac(), b.getAspect(), b.getOverlapCenterFrac(), b.getLabel(), b.getBoxFault(), b.getCreatedAt());
+        }
+        return sb.toString();
+    }
+
+    private String anomalyCsv(List<Anomaly> anomalies) {
+        StringBuilder sb = new StringBuilder(anomalies.size() * 128);
+        for (Anomaly a : anomalies) {
+            row(sb, a.getId(), a.getInspectionNumber(), a.getInspectionRefId(), a.getIdx(), a.getLabel(), a.getCoords(), a.getConfidence(),
+                    a.getSeverity(), a.getAreaFrac(), a.getIsManual(), a.getCreatedBy(), a.getDeleted(), a.getDeletedAt(),
+                    a.getDeletedBy(), a.getCreatedAt());
+        }
+        return sb.toString();
+    }
+
+    // CSV in COPY's dialect: an unquoted empty field is NULL, everything else is quoted
+    private static void row(StringBuilder sb, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(',');
+            Object v = values[i];
+            if (v == null) continue;
+            if (v instanceof Number || v instanceof Boolean) {
+                sb.append(v);
+            } else {
+                sb.append('"').append(v.toString().replace("\"", "\"\"")).append('"');
+            }
+        }
+        sb.append('\n');
+    }
+
+    /**
+     * Takes enough values from a pooled sequence for {@code count} rows. Each value {@code v}
+     * reserves ids {@code v - 99 .. v}, the same contract Hibernate's pooled optimizer uses.
+     */
+    private List<Long> allocateIds(String sequence, int count) {
+        int blocks = (count + SEQUENCE_ALLOCATION - 1) / SEQUENCE_ALLOCATION;
+        List<Long> his = jdbcTemplate.queryForList(
+                "SELECT nextval('" + sequence + "') FROM generate_series(1, ?)", Long.class, blocks);
+        List<Long> ids = new ArrayList<>(count);
+        for (Long hi : his) {
+            for (long id = hi - SEQUENCE_ALLOCATION + 1; id <= hi && ids.size() < count; id++) ids.add(id);
+        }
+        return ids;
+    }
+
+    private void backoff(RuntimeException e) {
+        failures++;
+        long delay = Math.min(maxBackoffMs, 250L << Math.min(failures, 16));
+        nextAttemptAt = System.currentTimeMillis() + delay;
+        log.warn("Write-behind flush failed (attempt {}), retrying in {} ms: {}", failures, delay, e.getMessage());
+    }
+
+    private void deadLetter(AnalysisJournal.Entry entry, RuntimeException e) {
+        try {
+            journal.deadLetter(entry, e.getMessage());
+        } catch (IOException io) {
+            log.error("Could not dead-letter journal entry {}: {}", entry.getSequence(), io.getMessage());
+        }
+    }
+
+    // SQLSTATE class 22 (data exception) and 23 (integrity violation) will not succeed on retry
+    private static boolean isDataError(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && sql.getSQLState() != null) {
+                return sql.getSQLState().startsWith("22") || sql.getSQLState().startsWith("23");
+            }
+        }
+        return false;
+    }
+}
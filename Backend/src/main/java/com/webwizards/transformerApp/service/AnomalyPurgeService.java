@@ -0,0 +1,81 @@
+package com.webwizards.transformerApp.service;
+
+import java.time.LocalDateTime;
+import java.time.Period;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves soft-deleted anomalies older than the retention period into {@code anomalies_archive}
+ * (PostgreSQL only).
+ *
+ * Rows are moved {@code batch-size} at a time, each chunk a DELETE ... RETURNING feeding an
+ * INSERT in its own short transaction, so no run holds locks or a snapshot for long. Rows locked
+ * by a concurrent write are skipped until the next run. Soft-deleted rows are already left out of
+ * {@code anomaly_rollups} and the dashboard counters, so neither changes.
+ */
+@Service
+public class AnomalyPurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnomalyPurgeService.class);
+
+    private static final String COLUMNS = AnalysisWriteBehindService.ANOMALY_COLUMNS;
+    private static final String MOVE_CHUNK = "WITH moved AS ("
+            + " DELETE FROM anomalies WHERE (id, created_at) IN ("
+            + "  SELECT id, created_at FROM anomalies WHERE deleted = true AND deleted_at < ?"
+            + "  ORDER BY deleted_at LIMIT ? FOR UPDATE SKIP LOCKED)"
+            + " RETURNING " + COLUMNS + ")"
+            + " INSERT INTO anomalies_archive (" + COLUMNS + ") SELECT " + COLUMNS + " FROM moved";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Period retention;
+    private final int batchSize;
+    private final int maxBatches;
+
+    public AnomalyPurgeService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               @Value("${transformer.anomaly-purge.enabled:true}") boolean enabled,
+                               @Value("${transformer.anomaly-purge.retention:P90D}") Period retention,
+                               @Value("${transformer.anomaly-purge.batch-size:1000}") int batchSize,
+                               @Value("${transformer.anomaly-purge.max-batches:1000}") int maxBatches) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    /**
+     * @return rows moved; a run stops after {@code max-batches} chunks and leaves the rest to the next
+     */
+    @Scheduled(cron = "${transformer.anomaly-purge.cron:0 45 3 * * *}")
+    public long purge() {
+        if (!enabled) return 0;
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        long start = System.nanoTime();
+        long moved = 0;
+        try {
+            for (int batch = 0; batch < maxBatches; batch++) {
+                Integer n = transactionTemplate.execute(status -> jdbcTemplate.update(MOVE_CHUNK, cutoff, batchSize));
+                moved += n == null ? 0 : n;
+                if (n == null || n < batchSize) break;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Anomaly purge stopped after {} rows: {}", moved, e.getMessage());
+        }
+        if (moved > 0) {
+            log.info("Archived {} soft-deleted anomalies deleted before {} in {} ms", moved, cutoff,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+        return moved;
+    }
+}
@@ -0,0 +1,178 @@
+package com.webwizards.transformerApp.service;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.webwizards.transformerApp.dto.AnomalyAnalyticsQuery;
+import com.webwizards.transformerApp.dto.AnomalyCount;
+import com.webwizards.transformerApp.event.BoxesStoredEvent;
+import com.webwizards.transformerApp.model.Anomaly;
+import com.webwizards.transformerApp.model.InspectionBox;
+import com.webwizards.transformerApp.repository.AnomalyRepository;
+import com.webwizards.transformerApp.repository.InspectionBoxRepository;
+
+/**
+ * Maintains {@code anomaly_rollups}, the per-month counts behind GET /api/analytics/anomalies.
+ *
+ * Every write that adds or removes counted rows adjusts the affected buckets in the same
+ * transaction, so the rollups always match the raw tables: rows are counted out before they are
+ * deleted or soft-deleted and counted in once they are written. The adjustment is computed in SQL
+ * from the rows themselves (joined to their inspection and transformer) and applied as an upsert,
+ * so its cost depends on the size of the write, not on the size of the tables.
+ */
+@Service
+public class AnomalyRollupService {
+
+    public static final String ANOMALIES = "anomalies";
+    public static final String BOUNDING_BOXES = "bounding_boxes";
+
+    private static final String UPSERT = "INSERT INTO anomaly_rollups (source, month, region, transformer_no, label, row_count) ";
+    private static final String ON_CONFLICT = " GROUP BY 1, 2, 3, 4, 5 ORDER BY 1, 2, 3, 4, 5"
+            + " ON CONFLICT (source, month, region, transformer_no, label)"
+            + " DO UPDATE SET row_count = anomaly_rollups.row_count + EXCLUDED.row_count";
+    // keep the expressions in step with V7__anomaly_rollups.sql
+    private static final String ANOMALY_DELTA = UPSERT
+            + "SELECT 'anomaly', date_trunc('month', a.created_at)::date, COALESCE(t.region, ''), COALESCE(t.transformer_no, ''),"
+            + " lower(btrim(COALESCE(a.label, ''))), ? * count(*)"
+            + " FROM anomalies a LEFT JOIN inspections i ON i.id = a.inspection_ref_id"
+            + " LEFT JOIN transformers t ON t.id = i.transformer_id"
+            + " WHERE a.id = ANY (?) AND a.created_at BETWEEN ? AND ? AND a.deleted IS NOT TRUE" + ON_CONFLICT;
+    private static final String BOX_DELTA = UPSERT
+            + "SELECT 'detection', date_trunc('month', b.created_at AT TIME ZONE 'UTC')::date, COALESCE(t.region, ''),"
+            + " COALESCE(t.transformer_no, ''), lower(btrim(COALESCE(NULLIF(btrim(b.box_fault), ''), b.label, ''))), ? * count(*)"
+            + " FROM bounding_boxes b LEFT JOIN inspections i ON i.id = b.inspection_ref_id"
+            + " LEFT JOIN transformers t ON t.id = i.transformer_id"
+            + " WHERE b.id = ANY (?) AND b.created_at BETWEEN ? AND ?" + ON_CONFLICT;
+
+    private static final Map<String, String> DIMENSIONS = new LinkedHashMap<>();
+    static {
+        DIMENSIONS.put("source", "source");
+        DIMENSIONS.put("region", "region");
+        DIMENSIONS.put("transformer", "transformer_no");
+        DIMENSIONS.put("month", "month");
+        DIMENSIONS.put("label", "label");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AnomalyRepository anomalyRepository;
+    private final InspectionBoxRepository boxRepository;
+    private final ApplicationEventPublisher events;
+
+    public AnomalyRollupService(JdbcTemplate jdbcTemplate, AnomalyRepository anomalyRepository,
+                                InspectionBoxRepository boxRepository, ApplicationEventPublisher events) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.anomalyRepository = anomalyRepository;
+        this.boxRepository = boxRepository;
+        this.events = events;
+    }
+
+    @Transactional
+    public List<Anomaly> saveAnomalies(List<Anomaly> batch) {
+        List<Anomaly> saved = anomalyRepository.saveAllAndFlush(batch);
+        countAnomalies(saved, 1);
+        return saved;
+    }
+
+    /**
+     * Saves anomalies that were just marked deleted; they stop being counted
+     */
+    @Transactional
+    public void saveSoftDeleted(List<Anomaly> anomalies) {
+        countAnomalies(anomalies, -1);
+        anomalyRepository.saveAllAndFlush(anomalies);
+    }
+
+    @Transactional
+    public void deleteAnomalies(List<Anomaly> anomalies) {
+        countAnomalies(anomalies, -1);
+        anomalyRepository.deleteAll(anomalies);
+    }
+
+    @Transactional
+    public List<InspectionBox> saveBoxes(List<InspectionBox> batch) {
+        List<InspectionBox> saved = boxRepository.saveAllAndFlush(batch);
+        if (!saved.isEmpty()) {
+            adjust(BOUNDING_BOXES, saved.stream().map(InspectionBox::getId).toList(),
+                    CreatedAtRange.ofInstants(saved.stream().map(InspectionBox::getCreatedAt).toList()), 1);
+            events.publishEvent(new BoxesStoredEvent(saved));
+        }
+        return saved;
+    }
+
+    /**
+     * Adds {@code sign} times the counted rows among {@code ids} to their buckets. Rows that are not
+     * there (or are soft-deleted) contribute nothing. The created_at range only narrows the
+     * partitions read and must cover the rows.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void adjust(String table, Collection<Long> ids, CreatedAtRange createdAt, int sign) {
+        if (ids.isEmpty()) return;
+        String sql = switch (table) {
+            case ANOMALIES -> ANOMALY_DELTA;
+            case BOUNDING_BOXES -> BOX_DELTA;
+            default -> throw new IllegalArgumentException("no rollup for " + table);
+        };
+        jdbcTemplate.update(sql, ps -> {
+            ps.setInt(1, sign);
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+            ps.setObject(3, createdAt.from());
+            ps.setObject(4, createdAt.to());
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<AnomalyCount> query(AnomalyAnalyticsQuery q) {
+        List<String> groupBy = q.getGroupBy() == null || q.getGroupBy().isEmpty()
+                ? List.copyOf(DIMENSIONS.keySet()) : q.getGroupBy();
+        List<String> columns = new ArrayList<>();
+        for (String dim : groupBy) {
+            String column = DIMENSIONS.get(dim.trim().toLowerCase(Locale.ROOT));
+            if (column == null) throw new IllegalArgumentException("groupBy must be among " + DIMENSIONS.keySet());
+            if (!columns.contains(column)) columns.add(column);
+        }
+
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        filter(where, args, "source = ?", q.getSource());
+        filter(where, args, "region = ?", q.getRegion());
+        filter(where, args, "transformer_no = ?", q.getTransformerNo());
+        if (q.getLabel() != null) filter(where, args, "label = ?", q.getLabel().trim().toLowerCase(Locale.ROOT));
+        if (q.getFrom() != null) filter(where, args, "month >= ?", Date.valueOf(q.getFrom().atDay(1)));
+        if (q.getTo() != null) filter(where, args, "month <= ?", Date.valueOf(q.getTo().atDay(1)));
+
+        String dims = String.join(", ", columns);
+        String sql = "SELECT " + dims + ", SUM(row_count) AS n FROM anomaly_rollups" + where
+                + " GROUP BY " + dims + " HAVING SUM(row_count) > 0 ORDER BY " + dims;
+        return jdbcTemplate.query(sql, (rs, i) -> new AnomalyCount(
+                columns.contains("source") ? rs.getString("source") : null,
+                columns.contains("region") ? rs.getString("region") : null,
+                columns.contains("transformer_no") ? rs.getString("transformer_no") : null,
+                columns.contains("month") ? YearMonth.from(rs.getDate("month").toLocalDate()) : null,
+                columns.contains("label") ? rs.getString("label") : null,
+                rs.getLong("n")), args.toArray());
+    }
+
+    private void countAnomalies(List<Anomaly> anomalies, int sign) {
+        if (anomalies.isEmpty()) return;
+        adjust(ANOMALIES, anomalies.stream().map(Anomaly::getId).toList(),
+                CreatedAtRange.ofLocal(anomalies.stream().map(Anomaly::getCreatedAt).toList()), sign);
+    }
+
+    private static void filter(StringBuilder where, List<Object> args, String predicate, Object value) {
+        if (value == null || (value instanceof String s && s.isBlank())) return;
+        where.append(" AND ").append(predicate);
+        args.add(value);
+    }
+}
@@ -0,0 +1,95 @@
+package com.webwizards.transformerApp.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.webwizards.transformerApp.dto.IndexedBox;
+import com.webwizards.transformerApp.dto.InspectionRef;
+import com.webwizards.transformerApp.event.BoxesStoredEvent;
+import com.webwizards.transformerApp.model.InspectionBox;
+import com.webwizards.transformerApp.repository.InspectionRepository;
+
+/**
+ * Answers "which stored boxes of this transformer overlap this region" from an in-memory R-tree
+ * per transformer.
+ *
+ * A transformer's tree is loaded from {@code bounding_boxes} on its first lookup, receives boxes as
+ * their inserts commit, and is dropped after {@code idle-timeout} without lookups or when the
+ * indexes together exceed {@code max-boxes}. Only boxes linked to an inspection of the transformer
+ * are indexed.
+ */
+@Service
+public class BoxIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(BoxIndexService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InspectionRepository inspectionRepository;
+    private final Cache<Long, BoxRTree> indexes;
+
+    public BoxIndexService(JdbcTemplate jdbcTemplate, InspectionRepository inspectionRepository,
+                           @Value("${transformer.box-index.idle-timeout:PT30M}") Duration idleTimeout,
+                           @Value("${transformer.box-index.max-boxes:5000000}") long maxBoxes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.inspectionRepository = inspectionRepository;
+        this.indexes = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .maximumWeight(maxBoxes)
+                .weigher((Long id, BoxRTree tree) -> Math.max(tree.size(), 1))
+                .build();
+    }
+
+    public List<IndexedBox> search(Long transformerId, int x, int y, int w, int h) {
+        return indexes.get(transformerId, this::load).search(x, y, w, h);
+    }
+
+    /**
+     * Adds committed boxes to the indexes already loaded; the rest pick them up when they load
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBoxesStored(BoxesStoredEvent event) {
+        Map<Long, List<IndexedBox>> byTransformer = new HashMap<>();
+        Map<Long, Long> transformerOfInspection = new HashMap<>();
+        for (InspectionBox b : event.boxes()) {
+            if (b.getInspectionRefId() == null) continue;
+            Long transformerId = transformerOfInspection.computeIfAbsent(b.getInspectionRefId(), id ->
+                    inspectionRepository.findRefById(id).map(InspectionRef::transformerId).orElse(-1L));
+            if (transformerId < 0) continue;
+            byTransformer.computeIfAbsent(transformerId, k -> new ArrayList<>()).add(IndexedBox.of(b));
+        }
+        // compute waits for a load in progress, so boxes committed during it are not lost (computeIfPresent
+        // and getIfPresent return straight away while the entry is loading); the tree ignores ids the load
+        // already saw, and transformers that are not loaded stay absent
+        byTransformer.forEach((transformerId, boxes) -> indexes.asMap().compute(transformerId, (id, tree) -> {
+            if (tree != null) tree.insert(boxes);
+            return tree;
+        }));
+    }
+
+    private BoxRTree load(Long transformerId) {
+        long start = System.nanoTime();
+        List<IndexedBox> boxes = jdbcTemplate.query(
+                "SELECT b.id, b.inspection_ref_id, b.x, b.y, b.w, b.h, b.label, b.box_fault FROM bounding_boxes b"
+                        + " JOIN inspections i ON i.id = b.inspection_ref_id WHERE i.transformer_id = ?",
+                (rs, i) -> new IndexedBox(rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getInt(4), rs.getInt(5),
+                        rs.getInt(6), rs.getString(7), rs.getString(8)),
+                transformerId);
+        BoxRTree tree = new BoxRTree(boxes);
+        log.debug("Indexed {} boxes of transformer {} in {} ms", tree.size(), transformerId,
+                (System.nanoTime() - start) / 1_000_000);
+        return tree;
+    }
+}
@@ -0,0 +1,169 @@
+package com.webwizards.transformerApp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+import com.webwizards.transformerApp.dto.IndexedBox;
+
+/**
+ * The boxes of one transformer: a Sort-Tile-Recursive packed R-tree plus a small buffer of boxes
+ * inserted since it was packed.
+ *
+ * Reads work on an immutable snapshot and take no lock. Inserts copy the buffer; once it outgrows
+ * a quarter of the tree (and at least {@value #MIN_REPACK}) everything is packed again, so lookups
+ * never scan more than a bounded buffer linearly.
+ */
+public final class BoxRTree {
+
+    static final int NODE_CAPACITY = 16;
+    static final int MIN_REPACK = 64;
+
+    private record Node(int minX, int minY, int maxX, int maxY, Node[] children, IndexedBox[] boxes) {
+
+        boolean intersects(int x1, int y1, int x2, int y2) {
+            return minX <= x2 && maxX >= x1 && minY <= y2 && maxY >= y1;
+        }
+    }
+
+    private record Snapshot(Node root, int packed, IndexedBox[] buffer, Set<Long> ids) {}
+
+    private volatile Snapshot snapshot;
+
+    public BoxRTree(List<IndexedBox> boxes) {
+        Set<Long> ids = new HashSet<>();
+        List<IndexedBox> unique = new ArrayList<>(boxes.size());
+        for (IndexedBox b : boxes) {
+            if (ids.add(b.id())) unique.add(b);
+        }
+        snapshot = new Snapshot(pack(unique), unique.size(), new IndexedBox[0], ids);
+    }
+
+    public int size() {
+        Snapshot s = snapshot;
+        return s.packed + s.buffer.length;
+    }
+
+    /**
+     * Adds boxes not already present (by id)
+     */
+    public synchronized void insert(List<IndexedBox> boxes) {
+        Snapshot s = snapshot;
+        Set<Long> ids = new HashSet<>(s.ids);
+        List<IndexedBox> added = new ArrayList<>();
+        for (IndexedBox b : boxes) {
+            if (ids.add(b.id())) added.add(b);
+        }
+        if (added.isEmpty()) return;
+        IndexedBox[] buffer = Arrays.copyOf(s.buffer, s.buffer.length + added.size());
+        for (int i = 0; i < added.size(); i++) buffer[s.buffer.length + i] = added.get(i);
+
+        if (buffer.length >= Math.max(MIN_REPACK, s.packed / 4)) {
+            List<IndexedBox> all = new ArrayList<>(s.packed + buffer.length);
+            collect(s.root, all);
+            all.addAll(Arrays.asList(buffer));
+            snapshot = new Snapshot(pack(all), all.size(), new IndexedBox[0], ids);
+        } else {
+            snapshot = new Snapshot(s.root, s.packed, buffer, ids);
+        }
+    }
+
+    /**
+     * Boxes overlapping the rectangle (edges touching count), ordered by id
+     */
+    public List<IndexedBox> search(int x, int y, int w, int h) {
+        Snapshot s = snapshot;
+        int x2 = x + w;
+        int y2 = y + h;
+        List<IndexedBox> out = new ArrayList<>();
+        if (s.root != null) search(s.root, x, y, x2, y2, out);
+        for (IndexedBox b : s.buffer) {
+            if (b.intersects(x, y, x2, y2)) out.add(b);
+        }
+        out.sort(Comparator.comparingLong(IndexedBox::id));
+        return out;
+    }
+
+    private static void search(Node node, int x1, int y1, int x2, int y2, List<IndexedBox> out) {
+        if (!node.intersects(x1, y1, x2, y2)) return;
+        if (node.boxes != null) {
+            for (IndexedBox b : node.boxes) {
+                if (b.intersects(x1, y1, x2, y2)) out.add(b);
+            }
+            return;
+        }
+        for (Node child : node.children) search(child, x1, y1, x2, y2, out);
+    }
+
+    private static void collect(Node node, List<IndexedBox> out) {
+        if (node == null) return;
+        if (node.boxes != null) {
+            out.addAll(Arrays.asList(node.boxes));
+            return;
+        }
+        for (Node child : node.children) collect(child, out);
+    }
+
+    // Sort-Tile-Recursive: sort by x centre into vertical slices, each slice by y centre into full
+    // leaves, then pack each level the same way until a single root remains
+    private static Node pack(List<IndexedBox> boxes) {
+        if (boxes.isEmpty()) return null;
+        List<Object[]> groups = tile(boxes, b -> b.x() * 2L + b.w(), b -> b.y() * 2L + b.h());
+        List<Node> level = new ArrayList<>(groups.size());
+        for (Object[] group : groups) level.add(leaf(group));
+        while (level.size() > 1) {
+            List<Object[]> parents = tile(level, n -> (long) n.minX + n.maxX, n -> (long) n.minY + n.maxY);
+            List<Node> next = new ArrayList<>(parents.size());
+            for (Object[] children : parents) next.add(branch(children));
+            level = next;
+        }
+        return level.get(0);
+    }
+
+    private static <T> List<Object[]> tile(List<T> items, ToLongFunction<T> cx, ToLongFunction<T> cy) {
+        int n = items.size();
+        int leaves = (n + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int slices = (int) Math.ceil(Math.sqrt(leaves));
+        int perSlice = slices * NODE_CAPACITY;
+        List<T> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparingLong(cx));
+        List<Object[]> out = new ArrayList<>(leaves);
+        for (int s = 0; s < n; s += perSlice) {
+            List<T> slice = new ArrayList<>(sorted.subList(s, Math.min(s + perSlice, n)));
+            slice.sort(Comparator.comparingLong(cy));
+            for (int i = 0; i < slice.size(); i += NODE_CAPACITY) {
+                List<T> group = slice.subList(i, Math.min(i + NODE_CAPACITY, slice.size()));
+                out.add(group.toArray());
+            }
+        }
+        return out;
+    }
+
+    private static Node leaf(Object[] group) {
+        IndexedBox[] boxes = Arrays.copyOf(group, group.length, IndexedBox[].class);
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (IndexedBox b : boxes) {
+            minX = Math.min(minX, b.x());
+            minY = Math.min(minY, b.y());
+            maxX = Math.max(maxX, b.x() + b.w());
+            maxY = Math.max(maxY, b.y() + b.h());
+        }
+        return new Node(minX, minY, maxX, maxY, null, boxes);
+    }
+
+    private static Node branch(Object[] group) {
+        Node[] children = Arrays.copyOf(group, group.length, Node[].class);
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (Node c : children) {
+            minX = Math.min(minX, c.minX);
+            minY = Math.min(minY, c.minY);
+            maxX = Math.max(maxX, c.maxX);
+            maxY = Math.max(maxY, c.maxY);
+        }
+        return new Node(minX, minY, maxX, maxY, children, null);
+    }
+}
@@ -0,0 +1,269 @@
+package com.webwizards.transformerApp.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import com.webwizards.transformerApp.dto.BulkImportEntryResult;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Imports a ZIP of inspection images in one request.
+ *
+ * The archive is read as a stream, one entry at a time. Each entry is handed to a bounded worker
+ * pool that hashes it, writes it into the hot storage tier and decodes its raster sidecar. When
+ * the pool and its queue are full the reading thread runs the entry itself, which keeps at most
+ * {@code threads * 3} entries in memory. The {@code inspection_images} rows are then written with
+ * JDBC batch inserts, one transaction per batch; entries whose batch is not committed have their
+ * files removed again. A sidecar that cannot be decoded does not fail the entry, since the
+ * analyzers fall back to decoding the original.
+ */
+@Service
+public class BulkImageImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImageImportService.class);
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "bmp", "gif", "tif", "tiff");
+    private static final String INSERT_SQL =
+            "INSERT INTO inspection_images (file_name, file_path, content_type, inspection_id, width, height) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TieredImageStorage imageStorage;
+    private final RasterIngestService rasterIngestService;
+    private final ThreadPoolExecutor executor;
+    private final long maxEntryBytes;
+    private final int batchSize;
+
+    public BulkImageImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                  TieredImageStorage imageStorage,
+                                  RasterIngestService rasterIngestService,
+                                  @Value("${transformer.bulk-import.threads:4}") int threads,
+                                  @Value("${transformer.bulk-import.max-entry-size:50MB}") DataSize maxEntrySize,
+                                  @Value("${transformer.bulk-import.batch-size:100}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.imageStorage = imageStorage;
+        this.rasterIngestService = rasterIngestService;
+        this.maxEntryBytes = maxEntrySize.toBytes();
+        this.batchSize = batchSize;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 2),
+                r -> {
+                    Thread t = new Thread(r, "bulk-import-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Reads the ZIP stream and imports every image entry for the given inspection
+     * @return one result per entry, in archive order
+     */
+    public List<BulkImportEntryResult> importZip(Long inspectionId, InputStream zipStream) throws IOException {
+        List<String> names = new ArrayList<>();
+        List<Future<BulkImportEntryResult>> futures = new ArrayList<>();
+        Map<String, String> seenHashes = new ConcurrentHashMap<>();
+        Set<String> usedNames = ConcurrentHashMap.newKeySet();
+
+        try (ZipInputStream zip = new ZipInputStream(zipStream)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) continue;
+                String entryName = entry.getName();
+                names.add(entryName);
+
+                String baseName = Path.of(entryName.replace('\\', '/')).getFileName().toString();
+                if (baseName.startsWith(".") || !IMAGE_EXTENSIONS.contains(extension(baseName))) {
+                    futures.add(CompletableFuture.completedFuture(
+                            new BulkImportEntryResult(entryName, "skipped")));
+                    continue;
+                }
+
+                // only one entry is materialised per submitted task; the archive itself is never buffered
+                byte[] data = zip.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, maxEntryBytes + 1));
+                if (data.length > maxEntryBytes) {
+                    futures.add(CompletableFuture.completedFuture(
+                            BulkImportEntryResult.failed(entryName, "Entry exceeds the maximum size")));
+                    continue;
+                }
+                futures.add(executor.submit(() -> store(entryName, baseName, data, inspectionId, seenHashes, usedNames)));
+            }
+        }
+
+        List<BulkImportEntryResult> results = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (ExecutionException e) {
+                results.add(BulkImportEntryResult.failed(names.get(i), String.valueOf(e.getCause().getMessage())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Bulk import interrupted", e);
+            }
+        }
+
+        insertRows(inspectionId, results);
+        return results;
+    }
+
+    private BulkImportEntryResult store(String entryName, String baseName, byte[] data, Long inspectionId,
+                                        Map<String, String> seenHashes, Set<String> usedNames) {
+        Path target = null;
+        try {
+            String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+            String firstEntry = seenHashes.putIfAbsent(hash, entryName);
+            if (firstEntry != null) {
+                BulkImportEntryResult result = new BulkImportEntryResult(entryName, "duplicate");
+                result.setSha256(hash);
+                result.setError("Same content as " + firstEntry);
+                return result;
+            }
+
+            String fileName = uniqueName(inspectionId, baseName, usedNames);
+            target = imageStorage.hotDirectory().resolve(fileName);
+            Files.write(target, data, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            imageStorage.admit(target);
+
+            BulkImportEntryResult result = new BulkImportEntryResult(entryName, "imported");
+            result.setFileName(fileName);
+            result.setSha256(hash);
+            try {
+                RasterIngestService.RasterInfo raster = rasterIngestService.ingest(target);
+                if (raster != null) {
+                    result.setWidth(raster.getWidth());
+                    result.setHeight(raster.getHeight());
+                    imageStorage.admit(rasterIngestService.sidecarFor(target));
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Importing {} without a raster sidecar: {}", fileName, e.getMessage());
+            }
+            return result;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            seenHashes.values().remove(entryName);
+            if (target != null) imageStorage.delete(target);
+            return BulkImportEntryResult.failed(entryName, e.getMessage());
+        }
+    }
+
+    /**
+     * Inserts the imported entries in JDBC batches and fills in the generated ids. If a batch fails,
+     * that batch and every later one are reported as failed and their files are deleted.
+     */
+    private void insertRows(Long inspectionId, List<BulkImportEntryResult> results) {
+        List<BulkImportEntryResult> imported = results.stream().filter(r -> "imported".equals(r.getStatus())).toList();
+        for (int from = 0; from < imported.size(); from += batchSize) {
+            List<BulkImportEntryResult> chunk = imported.subList(from, Math.min(from + batchSize, imported.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertChunk(inspectionId, chunk));
+            } catch (DataAccessException | TransactionException e) {
+                // a commit can fail after every statement in the batch succeeded
+                discard(imported.subList(from, imported.size()), e.getMostSpecificCause().getMessage());
+                return;
+            }
+        }
+    }
+
+    private void insertChunk(Long inspectionId, List<BulkImportEntryResult> chunk) {
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[] { "id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        BulkImportEntryResult r = chunk.get(i);
+                        ps.setString(1, r.getFileName());
+                        ps.setString(2, imageStorage.hotDirectory().resolve(r.getFileName()).toString());
+                        ps.setString(3, MediaTypeFactory.getMediaType(r.getFileName())
+                                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+                        ps.setLong(4, inspectionId);
+                        if (r.getWidth() != null) ps.setInt(5, r.getWidth()); else ps.setNull(5, Types.INTEGER);
+                        if (r.getHeight() != null) ps.setInt(6, r.getHeight()); else ps.setNull(6, Types.INTEGER);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return chunk.size();
+                    }
+                }, keys);
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < chunk.size() && i < generated.size(); i++) {
+            Object id = generated.get(i).get("id");
+            if (id instanceof Number n) chunk.get(i).setImageId(n.longValue());
+        }
+    }
+
+    private void discard(List<BulkImportEntryResult> entries, String error) {
+        for (BulkImportEntryResult r : entries) {
+            Path target = imageStorage.hotDirectory().resolve(r.getFileName());
+            imageStorage.delete(target);
+            imageStorage.delete(rasterIngestService.sidecarFor(target));
+            r.setStatus("failed");
+            r.setImageId(null);
+            r.setError(error);
+        }
+    }
+
+    private String uniqueName(Long inspectionId, String baseName, Set<String> usedNames) {
+        // prefix with the inspection so crews re-using camera file names do not overwrite each other
+        String prefixed = inspectionId + "_" + baseName;
+        int dot = prefixed.lastIndexOf('.');
+        String stem = prefixed.substring(0, dot);
+        String ext = prefixed.substring(dot);
+        String candidate = prefixed;
+        for (int n = 1; !usedNames.add(candidate)
+                || imageStorage.exists(imageStorage.hotDirectory().resolve(candidate).toString()); n++) {
+            candidate = stem + "_" + n + ext;
+        }
+        return candidate;
+    }
+
+    private static String extension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
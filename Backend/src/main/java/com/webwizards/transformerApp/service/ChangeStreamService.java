@@ -0,0 +1,270 @@
+package com.webwizards.transformerApp.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import com.webwizards.transformerApp.dto.ChangeNotification;
+import com.webwizards.transformerApp.dto.InspectionRef;
+import com.webwizards.transformerApp.dto.TransformerRef;
+import com.webwizards.transformerApp.event.AnalysisChangeEvent;
+import com.webwizards.transformerApp.repository.InspectionRepository;
+import com.webwizards.transformerApp.repository.TransformerRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes {@link AnalysisChangeEvent}s to server-sent event subscribers of GET /api/stream.
+ *
+ * Each event is resolved to its transformer and region (cached lookups) and offered to the
+ * {@link EventBuffer} of every subscriber whose filter it matches; publishers never wait for a
+ * client. A small pool sends each subscriber's buffer in order, one drain at a time, so a slow
+ * client only ever holds {@code buffer-size} pending notifications and one sending thread. When
+ * its buffer overflowed the client gets an {@code overflow} event and should re-read. Idle streams
+ * get a comment every {@code heartbeat-interval}, which also detects closed connections.
+ *
+ * A send that blocks for longer than {@code send-timeout} (a client that stopped reading) drops the
+ * subscriber, and the pool gets a replacement thread until that send returns, so stalled clients
+ * cannot starve the others. The container's write timeout eventually fails the blocked send, and
+ * the emitter is then completed by the thread that was sending.
+ */
+@Service
+public class ChangeStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeStreamService.class);
+
+    /** Which changes a subscriber wants; null fields match everything */
+    public record Filter(Long transformerId, String region, Long inspectionId, Set<String> types) {
+
+        boolean matches(ChangeNotification n) {
+            return (transformerId == null || transformerId.equals(n.transformerId()))
+                    && (region == null || region.equalsIgnoreCase(n.region()))
+                    && (inspectionId == null || inspectionId.equals(n.inspectionId()))
+                    && (types == null || types.isEmpty() || types.contains(n.type()));
+        }
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final Filter filter;
+        final EventBuffer buffer;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean heartbeat;
+        // guarded by this
+        private boolean sending;
+        private long sendStarted;
+        private boolean dropped;
+        private boolean replaced;
+
+        Subscriber(SseEmitter emitter, Filter filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+            this.buffer = new EventBuffer(bufferSize);
+        }
+
+        void schedule() {
+            if (isDropped() || !draining.compareAndSet(false, true)) return;
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+
+        void drain() {
+            try {
+                while (true) {
+                    EventBuffer.Batch batch = buffer.drain();
+                    boolean beat = heartbeat;
+                    heartbeat = false;
+                    if (batch.isEmpty() && !beat) {
+                        draining.set(false);
+                        // an offer may have come in after the drain but before the flag was cleared
+                        if (buffer.isEmpty() || !draining.compareAndSet(false, true)) return;
+                        continue;
+                    }
+                    if (batch.dropped() > 0) {
+                        send(SseEmitter.event().name("overflow").data(Map.of("dropped", batch.dropped())));
+                    }
+                    for (ChangeNotification n : batch.notifications()) {
+                        send(SseEmitter.event().name(n.type()).data(n));
+                    }
+                    if (beat && batch.isEmpty()) send(SseEmitter.event().comment("heartbeat"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // the client went away, the emitter timed out or the send stalled
+                remove(this);
+                draining.set(false);
+            }
+        }
+
+        private void send(SseEventBuilder event) throws IOException {
+            synchronized (this) {
+                sending = true;
+                sendStarted = System.nanoTime();
+            }
+            boolean release;
+            try {
+                emitter.send(event);
+            } finally {
+                synchronized (this) {
+                    sending = false;
+                    release = replaced;
+                    replaced = false;
+                }
+            }
+            if (release) releaseSender();
+            if (isDropped()) throw new IOException("send timed out");
+        }
+
+        /**
+         * Marks the subscriber dropped when its current send has been blocked for at least {@code limit} nanoseconds
+         */
+        synchronized boolean dropIfStalled(long now, long limit) {
+            if (!sending || dropped || now - sendStarted < limit) return false;
+            dropped = true;
+            replaced = borrowSender();
+            return true;
+        }
+
+        synchronized boolean isDropped() {
+            return dropped;
+        }
+    }
+
+    private final InspectionRepository inspectionRepository;
+    private final TransformerRepository transformerRepository;
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+    private final ThreadPoolExecutor senders;
+    private final int threads;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final Duration sendTimeout;
+    // replacement threads for sends blocked by dropped subscribers; guarded by this
+    private int borrowed;
+
+    public ChangeStreamService(InspectionRepository inspectionRepository, TransformerRepository transformerRepository,
+                               @Value("${transformer.stream.buffer-size:256}") int bufferSize,
+                               @Value("${transformer.stream.max-subscribers:1000}") int maxSubscribers,
+                               @Value("${transformer.stream.timeout:PT30M}") Duration timeout,
+                               @Value("${transformer.stream.threads:4}") int threads,
+                               @Value("${transformer.stream.send-timeout:PT10S}") Duration sendTimeout) {
+        this.inspectionRepository = inspectionRepository;
+        this.transformerRepository = transformerRepository;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.sendTimeout = sendTimeout;
+        this.threads = threads;
+        this.senders = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "change-stream");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * @throws IllegalStateException when {@code max-subscribers} streams are already open
+     */
+    public SseEmitter subscribe(Filter filter) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many open change streams");
+        }
+        return register(new SseEmitter(timeout.toMillis()), filter);
+    }
+
+    SseEmitter register(SseEmitter emitter, Filter filter) {
+        Subscriber subscriber = new Subscriber(emitter, filter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    @EventListener
+    public void onChange(AnalysisChangeEvent event) {
+        if (subscribers.isEmpty()) return;
+        Long transformerId = null;
+        String region = null;
+        if (event.inspectionId() != null) {
+            transformerId = inspectionRepository.findRefById(event.inspectionId()).map(InspectionRef::transformerId).orElse(null);
+            if (transformerId != null) {
+                region = transformerRepository.findRefById(transformerId).map(TransformerRef::region).orElse(null);
+            }
+        }
+        ChangeNotification n = new ChangeNotification(event.type(), event.inspectionId(), transformerId, region,
+                event.count(), event.at());
+        for (Subscriber s : subscribers) {
+            if (!s.filter.matches(n)) continue;
+            s.buffer.offer(n);
+            s.schedule();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${transformer.stream.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        for (Subscriber s : subscribers) {
+            s.heartbeat = true;
+            s.schedule();
+        }
+    }
+
+    /**
+     * Drops subscribers whose send has been blocked for longer than {@code send-timeout}
+     */
+    @Scheduled(fixedDelayString = "${transformer.stream.send-timeout:PT10S}")
+    public void dropStalled() {
+        long now = System.nanoTime();
+        for (Subscriber s : subscribers) {
+            if (s.dropIfStalled(now, sendTimeout.toNanos()) && subscribers.remove(s)) {
+                log.info("Dropped a change stream subscriber whose send stalled for over {}", sendTimeout);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        for (Subscriber s : subscribers) s.emitter.complete();
+    }
+
+    private synchronized boolean borrowSender() {
+        // at most one replacement per pool thread; past that stalled clients only slow the others down
+        if (borrowed >= threads) return false;
+        borrowed++;
+        senders.setMaximumPoolSize(threads + borrowed);
+        senders.setCorePoolSize(threads + borrowed);
+        return true;
+    }
+
+    private synchronized void releaseSender() {
+        borrowed--;
+        senders.setCorePoolSize(threads + borrowed);
+        senders.setMaximumPoolSize(threads + borrowed);
+    }
+
+    private void remove(Subscriber s) {
+        if (subscribers.remove(s) || s.isDropped()) {
+            log.debug("Change stream subscriber left; {} remain", subscribers.size());
+            s.emitter.completeWithError(new IOException("stream closed"));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.webwizards.transformerApp.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts of one kind of row by a key (a status, a severity), kept in {@link LongAdder}s so
+ * concurrent writers add without contending on a shared cell.
+ */
+public final class CounterGroup {
+
+    private final ConcurrentHashMap<String, LongAdder> byKey = new ConcurrentHashMap<>();
+
+    public void add(String key, long delta) {
+        if (delta == 0) return;
+        byKey.computeIfAbsent(key == null ? "" : key, k -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * Moves each count to the value counted in the database. The correction is applied as a delta,
+     * so writes made while the database was being counted are not lost; one racing the count
+     * exactly may be off by its size until the next reconcile.
+     *
+     * @return the total drift corrected
+     */
+    public long reconcile(Map<String, Long> counted) {
+        long drift = 0;
+        for (Map.Entry<String, Long> e : counted.entrySet()) {
+            long current = byKey.containsKey(e.getKey()) ? byKey.get(e.getKey()).sum() : 0;
+            if (current != e.getValue()) {
+                add(e.getKey(), e.getValue() - current);
+                drift += Math.abs(e.getValue() - current);
+            }
+        }
+        for (Map.Entry<String, LongAdder> e : byKey.entrySet()) {
+            if (counted.containsKey(e.getKey())) continue;
+            long current = e.getValue().sum();
+            e.getValue().add(-current);
+            drift += Math.abs(current);
+        }
+        return drift;
+    }
+
+    public long total() {
+        long total = 0;
+        for (LongAdder a : byKey.values()) total += a.sum();
+        return total;
+    }
+
+    /** Non-zero counts, sorted by key */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> out = new TreeMap<>();
+        byKey.forEach((k, a) -> {
+            long n = a.sum();
+            if (n != 0) out.put(k, n);
+        });
+        return out;
+    }
+}
@@ -0,0 +1,35 @@
+package com.webwizards.transformerApp.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * The created_at range of a batch of rows in a monthly partitioned table (V6). Statements that look
+ * rows up by id add it so only the partitions the batch can be in are read.
+ *
+ * created_at is stored to the microsecond, so the range is widened by a millisecond on each side to
+ * still cover the rounded values.
+ */
+public record CreatedAtRange(Object from, Object to) {
+
+    private static final Duration ROUNDING = Duration.ofMillis(1);
+
+    /**
+     * Range of {@code anomalies} rows, whose created_at is a local timestamp
+     */
+    public static CreatedAtRange ofLocal(Collection<LocalDateTime> createdAt) {
+        return new CreatedAtRange(Collections.min(createdAt).minus(ROUNDING), Collections.max(createdAt).plus(ROUNDING));
+    }
+
+    /**
+     * Range of {@code bounding_boxes} rows, whose created_at is a timestamptz kept in UTC
+     */
+    public static CreatedAtRange ofInstants(Collection<Instant> createdAt) {
+        return new CreatedAtRange(Collections.min(createdAt).minus(ROUNDING).atOffset(ZoneOffset.UTC),
+                Collections.max(createdAt).plus(ROUNDING).atOffset(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,118 @@
+package com.webwizards.transformerApp.service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.webwizards.transformerApp.model.Anomaly;
+import com.webwizards.transformerApp.model.InspectionBox;
+
+/**
+ * In-memory counts behind GET /api/stats: inspections by status, live (not soft-deleted)
+ * anomalies by severity and stored detections by fault type.
+ *
+ * The controllers add to them after each write commits, so reading them costs nothing regardless
+ * of table size. They are seeded from the database at startup and reconciled every
+ * {@code reconcile-interval} to correct drift, e.g. from rows changed outside the API or writes
+ * that failed after counting. Write-behind rows are counted once journaled, slightly ahead of
+ * the flusher. Detections are reconciled from {@code anomaly_rollups}, so they share its fault
+ * normalization.
+ */
+@Service
+public class DashboardStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardStatsService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CounterGroup inspections = new CounterGroup();
+    private final CounterGroup anomalies = new CounterGroup();
+    private final CounterGroup detections = new CounterGroup();
+    private volatile Instant reconciledAt;
+
+    public DashboardStatsService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void inspectionAdded(String status) {
+        inspections.add(key(status), 1);
+    }
+
+    public void anomaliesAdded(Collection<Anomaly> added) {
+        for (Anomaly a : added) anomalies.add(key(a.getSeverity()), 1);
+    }
+
+    /**
+     * @param removed anomalies that were active until this write, not ones already soft-deleted
+     */
+    public void anomaliesRemoved(Collection<Anomaly> removed) {
+        for (Anomaly a : removed) anomalies.add(key(a.getSeverity()), -1);
+    }
+
+    public void detectionsAdded(Collection<InspectionBox> added) {
+        for (InspectionBox b : added) {
+            String fault = b.getBoxFault() != null && !b.getBoxFault().isBlank() ? b.getBoxFault() : b.getLabel();
+            detections.add(key(fault).toLowerCase(Locale.ROOT), 1);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("inspections", group("byStatus", inspections));
+        out.put("anomalies", group("bySeverity", anomalies));
+        out.put("detections", group("byFault", detections));
+        out.put("reconciledAt", reconciledAt);
+        return out;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${transformer.stats.reconcile-interval:PT5M}",
+               initialDelayString = "${transformer.stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        long drift = reconcile(inspections, "SELECT COALESCE(btrim(status), ''), count(*) FROM inspections GROUP BY 1")
+                + reconcile(anomalies, "SELECT COALESCE(btrim(severity), ''), count(*) FROM anomalies"
+                        + " WHERE deleted IS NOT TRUE GROUP BY 1")
+                + reconcile(detections, "SELECT label, SUM(row_count) FROM anomaly_rollups"
+                        + " WHERE source = 'detection' GROUP BY label");
+        reconciledAt = Instant.now();
+        if (drift != 0) log.info("Reconciled dashboard counters; corrected a drift of {}", drift);
+    }
+
+    private long reconcile(CounterGroup group, String sql) {
+        try {
+            Map<String, Long> counted = new HashMap<>();
+            jdbcTemplate.query(sql, rs -> {
+                counted.put(rs.getString(1), rs.getLong(2));
+            });
+            return group.reconcile(counted);
+        } catch (RuntimeException e) {
+            log.warn("Could not reconcile dashboard counters: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private static Map<String, Object> group(String name, CounterGroup group) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("total", group.total());
+        out.put(name, group.snapshot());
+        return out;
+    }
+
+    private static String key(String value) {
+        return value == null ? "" : value.trim();
+    }
+}
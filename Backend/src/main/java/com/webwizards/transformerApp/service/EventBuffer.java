@@ -0,0 +1,59 @@
+package com.webwizards.transformerApp.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import com.webwizards.transformerApp.dto.ChangeNotification;
+
+/**
+ * Pending notifications of one stream subscriber, bounded to {@code capacity} entries.
+ *
+ * A notification with the same key as a pending one is merged into it, so a burst against one
+ * inspection takes one slot. When the buffer is full the oldest pending notification is dropped
+ * and counted, so the subscriber can be told to re-read instead of silently missing changes.
+ */
+public final class EventBuffer {
+
+    public record Batch(List<ChangeNotification> notifications, long dropped) {
+        public boolean isEmpty() {
+            return notifications.isEmpty() && dropped == 0;
+        }
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<String, ChangeNotification> pending = new LinkedHashMap<>();
+    private long dropped;
+
+    public EventBuffer(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public synchronized void offer(ChangeNotification n) {
+        ChangeNotification earlier = pending.get(n.key());
+        if (earlier != null) {
+            pending.put(n.key(), earlier.merge(n));
+            return;
+        }
+        if (pending.size() >= capacity) {
+            Iterator<ChangeNotification> oldest = pending.values().iterator();
+            oldest.next();
+            oldest.remove();
+            dropped++;
+        }
+        pending.put(n.key(), n);
+    }
+
+    /** Takes everything pending */
+    public synchronized Batch drain() {
+        Batch batch = new Batch(new ArrayList<>(pending.values()), dropped);
+        pending.clear();
+        dropped = 0;
+        return batch;
+    }
+
+    public synchronized boolean isEmpty() {
+        return pending.isEmpty() && dropped == 0;
+    }
+}
@@ -0,0 +1,159 @@
+package com.webwizards.transformerApp.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webwizards.transformerApp.dto.ExportQuery;
+
+/**
+ * Streams whole tables out as CSV for GET /api/export/{entity}.
+ *
+ * Rows are read through a server-side cursor ({@code fetch-size} rows per round trip, which
+ * PostgreSQL only honours inside a transaction) and written straight to the response, so memory
+ * use does not depend on the number of rows. Each row carries its transformer's number and region.
+ * Rows come in storage order; the date filter prunes the monthly partitions read.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    public static final String ANOMALIES = "anomalies";
+    public static final String BOUNDING_BOXES = "bounding-boxes";
+
+    private static final List<String> ANOMALY_COLUMNS = List.of("id", "inspection_number", "inspection_ref_id", "idx",
+            "label", "coords", "confidence", "severity", "area_frac", "is_manual", "created_by", "deleted", "deleted_at",
+            "deleted_by", "created_at");
+    private static final List<String> BOX_COLUMNS = List.of("id", "inspection_id", "inspection_ref_id", "box_index_id",
+            "x", "y", "w", "h", "area_frac", "aspect", "overlap_center_frac", "label", "box_fault", "track_id", "created_at");
+    private static final List<String> TRANSFORMER_COLUMNS = List.of("transformer_no", "region");
+
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ExportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         @Value("${transformer.export.fetch-size:1000}") int fetchSize) {
+        this.cursorTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.cursorTemplate.setFetchSize(fetchSize);
+        // read-only, so an export runs on a read replica when one is configured
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Checks the request before any of the response is written
+     */
+    public void validate(String entity, ExportQuery q) {
+        if (!ANOMALIES.equals(entity) && !BOUNDING_BOXES.equals(entity)) {
+            throw new IllegalArgumentException("entity must be " + ANOMALIES + " or " + BOUNDING_BOXES);
+        }
+        if (!"csv".equals(q.getFormat()) && !"csv.gz".equals(q.getFormat())) {
+            throw new IllegalArgumentException("format must be csv or csv.gz");
+        }
+        if (q.getFrom() != null && q.getTo() != null && q.getFrom().isAfter(q.getTo())) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+    }
+
+    public void export(String entity, ExportQuery q, OutputStream out) throws IOException {
+        validate(entity, q);
+        boolean anomalies = ANOMALIES.equals(entity);
+        String alias = anomalies ? "a" : "b";
+        List<String> header = new ArrayList<>(anomalies ? ANOMALY_COLUMNS : BOX_COLUMNS);
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (String column : header) sql.append(alias).append('.').append(column).append(", ");
+        sql.append("t.transformer_no, t.region FROM ").append(anomalies ? "anomalies" : "bounding_boxes").append(' ').append(alias)
+                .append(" LEFT JOIN inspections i ON i.id = ").append(alias).append(".inspection_ref_id")
+                .append(" LEFT JOIN transformers t ON t.id = i.transformer_id WHERE 1 = 1");
+        header.addAll(TRANSFORMER_COLUMNS);
+        List<Object> args = new ArrayList<>();
+        // anomalies.created_at is a local timestamp, bounding_boxes.created_at a timestamptz kept in UTC
+        if (q.getFrom() != null) {
+            sql.append(" AND ").append(alias).append(".created_at >= ?");
+            args.add(anomalies ? q.getFrom().atStartOfDay() : q.getFrom().atStartOfDay().atOffset(ZoneOffset.UTC));
+        }
+        if (q.getTo() != null) {
+            sql.append(" AND ").append(alias).append(".created_at < ?");
+            args.add(anomalies ? q.getTo().plusDays(1).atStartOfDay()
+                    : q.getTo().plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC));
+        }
+        if (q.getRegion() != null && !q.getRegion().isBlank()) {
+            sql.append(" AND t.region = ?");
+            args.add(q.getRegion());
+        }
+        if (q.getTransformerNo() != null && !q.getTransformerNo().isBlank()) {
+            sql.append(" AND t.transformer_no = ?");
+            args.add(q.getTransformerNo());
+        }
+        if (anomalies && !q.isIncludeDeleted()) sql.append(" AND a.deleted IS NOT TRUE");
+
+        OutputStream target = "csv.gz".equals(q.getFormat()) ? new GZIPOutputStream(out, 64 * 1024) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+        long start = System.nanoTime();
+        writer.write(String.join(",", header));
+        writer.write("\r\n");
+        CsvRows rows = new CsvRows(writer, header.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> cursorTemplate.query(sql.toString(), rows, args.toArray()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzip) gzip.finish();
+        log.debug("Exported {} {} rows in {} ms", rows.count, entity, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Writes one RFC 4180 line per row */
+    private static final class CsvRows implements RowCallbackHandler {
+
+        private final Writer writer;
+        private final int columns;
+        private long count;
+
+        CsvRows(Writer writer, int columns) {
+            this.writer = writer;
+            this.columns = columns;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                for (int c = 1; c <= columns; c++) {
+                    if (c > 1) writer.write(',');
+                    String v = rs.getString(c);
+                    if (v != null) writer.write(escape(v));
+                }
+                writer.write("\r\n");
+                count++;
+            } catch (IOException e) {
+                // the client went away; abandon the cursor
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    static String escape(String v) {
+        if (v.indexOf(',') < 0 && v.indexOf('"') < 0 && v.indexOf('\n') < 0 && v.indexOf('\r') < 0) return v;
+        return '"' + v.replace("\"", "\"\"") + '"';
+    }
+}
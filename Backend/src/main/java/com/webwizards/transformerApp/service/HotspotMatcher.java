@@ -0,0 +1,87 @@
+package com.webwizards.transformerApp.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.webwizards.transformerApp.dto.IndexedBox;
+
+/**
+ * Matches the boxes of a new analysis to existing hotspot tracks.
+ *
+ * Candidate pairs come from an R-tree over the tracks' latest boxes, searched around each new box
+ * out to the centroid gate, so the work grows with the number of nearby tracks rather than with
+ * tracks times boxes. A pair qualifies when its IoU reaches {@code minIou} or its centroids are
+ * within {@code maxDistance} pixels, and the fault labels do not disagree. Pairs are then taken
+ * greedily by cost, (1 - IoU) + distance / maxDistance, each track and box at most once.
+ */
+public final class HotspotMatcher {
+
+    private final double minIou;
+    private final double maxDistance;
+
+    public HotspotMatcher(double minIou, double maxDistance) {
+        this.minIou = minIou;
+        this.maxDistance = maxDistance;
+    }
+
+    private record Pair(double cost, long trackId, int box) {}
+
+    /**
+     * @param tracks latest box of each track, with the track id as its id
+     * @return track id for each matched index of {@code boxes}
+     */
+    public Map<Integer, Long> match(List<IndexedBox> tracks, List<IndexedBox> boxes) {
+        Map<Integer, Long> matched = new HashMap<>();
+        if (tracks.isEmpty() || boxes.isEmpty()) return matched;
+        BoxRTree tree = new BoxRTree(tracks);
+        int reach = (int) Math.ceil(maxDistance);
+
+        List<Pair> pairs = new ArrayList<>();
+        for (int j = 0; j < boxes.size(); j++) {
+            IndexedBox b = boxes.get(j);
+            for (IndexedBox t : tree.search(b.x() - reach, b.y() - reach, b.w() + 2 * reach, b.h() + 2 * reach)) {
+                if (!sameFault(t, b)) continue;
+                double iou = iou(t, b);
+                double distance = Math.hypot((t.x() + t.w() / 2.0) - (b.x() + b.w() / 2.0),
+                        (t.y() + t.h() / 2.0) - (b.y() + b.h() / 2.0));
+                if (iou < minIou && distance > maxDistance) continue;
+                pairs.add(new Pair((1 - iou) + distance / maxDistance, t.id(), j));
+            }
+        }
+        pairs.sort(Comparator.comparingDouble(Pair::cost));
+
+        Set<Long> usedTracks = new HashSet<>();
+        for (Pair p : pairs) {
+            if (matched.containsKey(p.box) || usedTracks.contains(p.trackId)) continue;
+            matched.put(p.box, p.trackId);
+            usedTracks.add(p.trackId);
+        }
+        return matched;
+    }
+
+    static double iou(IndexedBox a, IndexedBox b) {
+        long ix = Math.max(0, Math.min(a.x() + a.w(), b.x() + b.w()) - Math.max(a.x(), b.x()));
+        long iy = Math.max(0, Math.min(a.y() + a.h(), b.y() + b.h()) - Math.max(a.y(), b.y()));
+        long inter = ix * iy;
+        long union = (long) a.w() * a.h() + (long) b.w() * b.h() - inter;
+        return union <= 0 ? 0 : (double) inter / union;
+    }
+
+    // the fault type of a box: its boxFault, else its label
+    static String fault(IndexedBox b) {
+        String f = b.boxFault() != null && !b.boxFault().isBlank() ? b.boxFault() : b.label();
+        return f == null ? "" : f.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean sameFault(IndexedBox a, IndexedBox b) {
+        String fa = fault(a);
+        String fb = fault(b);
+        return fa.isEmpty() || fb.isEmpty() || fa.equals(fb);
+    }
+}
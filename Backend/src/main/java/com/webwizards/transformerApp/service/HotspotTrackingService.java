@@ -0,0 +1,138 @@
+package com.webwizards.transformerApp.service;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webwizards.transformerApp.dto.IndexedBox;
+import com.webwizards.transformerApp.dto.InspectionRef;
+import com.webwizards.transformerApp.event.BoxesStoredEvent;
+import com.webwizards.transformerApp.model.BoxTrack;
+import com.webwizards.transformerApp.model.InspectionBox;
+import com.webwizards.transformerApp.repository.BoxTrackRepository;
+import com.webwizards.transformerApp.repository.InspectionRepository;
+
+/**
+ * Links each stored analysis's boxes to the hotspot tracks of its transformer.
+ *
+ * Runs once the boxes are committed, one inspection at a time. A matched box extends its track
+ * (latest geometry, area and sighting); an unmatched one starts a new track. Tracking of one
+ * transformer is serialized by locking its row, so concurrent analyses cannot both start the same
+ * track. A failure is logged and leaves the boxes untracked; it never fails the write.
+ */
+@Service
+public class HotspotTrackingService {
+
+    private static final Logger log = LoggerFactory.getLogger(HotspotTrackingService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InspectionRepository inspectionRepository;
+    private final BoxTrackRepository trackRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final HotspotMatcher matcher;
+
+    public HotspotTrackingService(JdbcTemplate jdbcTemplate, InspectionRepository inspectionRepository,
+                                  BoxTrackRepository trackRepository, PlatformTransactionManager transactionManager,
+                                  @Value("${transformer.tracking.min-iou:0.1}") double minIou,
+                                  @Value("${transformer.tracking.max-centroid-distance:40}") double maxCentroidDistance) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.inspectionRepository = inspectionRepository;
+        this.trackRepository = trackRepository;
+        // after commit the finished transaction's resources are still bound, so start a fresh one
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.matcher = new HotspotMatcher(minIou, maxCentroidDistance);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBoxesStored(BoxesStoredEvent event) {
+        Map<Long, List<InspectionBox>> byInspection = new LinkedHashMap<>();
+        for (InspectionBox b : event.boxes()) {
+            if (b.getInspectionRefId() != null) byInspection.computeIfAbsent(b.getInspectionRefId(), k -> new ArrayList<>()).add(b);
+        }
+        byInspection.forEach((inspectionId, boxes) -> {
+            try {
+                inspectionRepository.findRefById(inspectionId)
+                        .filter(i -> i.transformerId() != null)
+                        .ifPresent(inspection -> transactionTemplate.executeWithoutResult(status -> track(inspection, boxes)));
+            } catch (RuntimeException e) {
+                log.warn("Could not track the boxes of inspection {}: {}", inspectionId, e.getMessage());
+            }
+        });
+    }
+
+    public List<BoxTrack> tracks(Long transformerId) {
+        return trackRepository.findByTransformerIdOrderByIdAsc(transformerId);
+    }
+
+    private void track(InspectionRef inspection, List<InspectionBox> boxes) {
+        Long transformerId = inspection.transformerId();
+        jdbcTemplate.queryForList("SELECT id FROM transformers WHERE id = ? FOR UPDATE", Long.class, transformerId);
+
+        List<BoxTrack> tracks = trackRepository.findByTransformerIdOrderByIdAsc(transformerId);
+        Map<Long, BoxTrack> byId = new HashMap<>();
+        List<IndexedBox> latest = new ArrayList<>(tracks.size());
+        for (BoxTrack t : tracks) {
+            byId.put(t.getId(), t);
+            latest.add(new IndexedBox(t.getId(), t.getLastInspectionId(), t.getX(), t.getY(), t.getW(), t.getH(), t.getLabel(), null));
+        }
+        List<IndexedBox> incoming = boxes.stream().map(IndexedBox::of).toList();
+        Map<Integer, Long> matched = matcher.match(latest, incoming);
+
+        LocalDateTime seenAt = inspection.date() == null ? LocalDateTime.now(ZoneOffset.UTC)
+                : inspection.date().atTime(inspection.time() == null ? LocalTime.MIDNIGHT : inspection.time());
+        List<BoxTrack> changed = new ArrayList<>();
+        for (int j = 0; j < incoming.size(); j++) {
+            IndexedBox b = incoming.get(j);
+            BoxTrack track = matched.containsKey(j) ? byId.get(matched.get(j)) : null;
+            if (track == null) {
+                track = new BoxTrack();
+                track.setTransformerId(transformerId);
+                track.setFirstBoxId(b.id());
+                track.setFirstArea(b.w() * b.h());
+                track.setFirstSeenAt(seenAt);
+            } else if (inspection.id().equals(track.getLastInspectionId())) {
+                // re-analysis of the same inspection: the track moves, but it is the same sighting
+                track.setBoxCount(track.getBoxCount() - 1);
+            }
+            track.setBoxCount(track.getBoxCount() + 1);
+            track.setLabel(HotspotMatcher.fault(b));
+            track.setLastBoxId(b.id());
+            track.setLastInspectionId(inspection.id());
+            track.setX(b.x());
+            track.setY(b.y());
+            track.setW(b.w());
+            track.setH(b.h());
+            track.setLastArea(b.w() * b.h());
+            track.setLastSeenAt(seenAt);
+            changed.add(track);
+        }
+        List<BoxTrack> saved = trackRepository.saveAllAndFlush(changed);
+
+        // the created_at range lets each update prune to the partitions holding the batch
+        CreatedAtRange createdAt = CreatedAtRange.ofInstants(boxes.stream().map(InspectionBox::getCreatedAt).toList());
+        List<Object[]> updates = new ArrayList<>(boxes.size());
+        for (int j = 0; j < boxes.size(); j++) {
+            updates.add(new Object[] { saved.get(j).getId(), boxes.get(j).getId(), createdAt.from(), createdAt.to() });
+        }
+        jdbcTemplate.batchUpdate("UPDATE bounding_boxes SET track_id = ? WHERE id = ? AND created_at BETWEEN ? AND ?", updates);
+        log.debug("Tracked {} boxes of inspection {}: {} matched, {} new tracks", boxes.size(), inspection.id(),
+                matched.size(), boxes.size() - matched.size());
+    }
+}
@@ -0,0 +1,81 @@
+package com.webwizards.transformerApp.service;
+
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webwizards.transformerApp.dto.InspectionDetail;
+import com.webwizards.transformerApp.repository.AnomalyRepository;
+import com.webwizards.transformerApp.repository.GeneralRecordRepository;
+import com.webwizards.transformerApp.repository.InspectionBoxRepository;
+import com.webwizards.transformerApp.repository.InspectionImageRepository;
+import com.webwizards.transformerApp.repository.InspectionRepository;
+import com.webwizards.transformerApp.repository.MaintenanceRecordRepository;
+import com.webwizards.transformerApp.repository.WorkDataSheetRepository;
+
+/**
+ * Builds the document behind GET /api/inspections/{id}/full: the inspection and everything hanging
+ * off it, in one read-only transaction of seven indexed queries (one per part, never one per row).
+ */
+@Service
+public class InspectionDetailService {
+
+    /** The serialized document and its strong ETag, a hash of those exact bytes */
+    public record Document(byte[] json, String etag) {}
+
+    private final InspectionRepository inspectionRepository;
+    private final InspectionImageRepository imageRepository;
+    private final AnomalyRepository anomalyRepository;
+    private final InspectionBoxRepository boxRepository;
+    private final GeneralRecordRepository generalRecordRepository;
+    private final MaintenanceRecordRepository maintenanceRecordRepository;
+    private final WorkDataSheetRepository workDataSheetRepository;
+    private final AnalysisWriteBehindService writeBehind;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public InspectionDetailService(InspectionRepository inspectionRepository, InspectionImageRepository imageRepository,
+                                   AnomalyRepository anomalyRepository, InspectionBoxRepository boxRepository,
+                                   GeneralRecordRepository generalRecordRepository,
+                                   MaintenanceRecordRepository maintenanceRecordRepository,
+                                   WorkDataSheetRepository workDataSheetRepository, AnalysisWriteBehindService writeBehind,
+                                   ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.inspectionRepository = inspectionRepository;
+        this.imageRepository = imageRepository;
+        this.anomalyRepository = anomalyRepository;
+        this.boxRepository = boxRepository;
+        this.generalRecordRepository = generalRecordRepository;
+        this.maintenanceRecordRepository = maintenanceRecordRepository;
+        this.workDataSheetRepository = workDataSheetRepository;
+        this.writeBehind = writeBehind;
+        this.objectMapper = objectMapper;
+        // read-only: no dirty-checking snapshots, and a read replica when one is configured
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public Optional<Document> document(Long inspectionId) {
+        // make anomalies and boxes acknowledged by earlier writes visible
+        writeBehind.awaitFlushed();
+        return transactionTemplate.execute(status -> inspectionRepository.findById(inspectionId).map(inspection -> {
+            InspectionDetail detail = new InspectionDetail(inspection,
+                    imageRepository.findSummariesByInspectionIdOrderByIdAsc(inspectionId),
+                    anomalyRepository.findByInspectionNumberAndDeletedFalseOrderByIdx(String.valueOf(inspectionId)),
+                    boxRepository.findByInspectionRefIdOrderByIdAsc(inspectionId),
+                    generalRecordRepository.findByInspectionIdOrderByIdAsc(inspectionId),
+                    maintenanceRecordRepository.findByInspectionIdOrderByIdAsc(inspectionId),
+                    workDataSheetRepository.findByInspectionIdOrderByIdAsc(inspectionId));
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(detail);
+                return new Document(json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize inspection " + inspectionId, e);
+            }
+        }));
+    }
+}
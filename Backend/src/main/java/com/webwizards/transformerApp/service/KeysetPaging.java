@@ -0,0 +1,69 @@
+package com.webwizards.transformerApp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cursor handling for keyset-paginated list endpoints ordered by {@code id}.
+ *
+ * The cursor is an opaque token for the last id of the previous page. Pages are fetched with one
+ * extra row so we know whether another page exists; the next cursor is returned in the
+ * {@value #NEXT_CURSOR_HEADER} header and the body stays a plain JSON array.
+ */
+@Component
+public class KeysetPaging {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public KeysetPaging(@Value("${transformer.pagination.default-page-size:50}") int defaultPageSize,
+                        @Value("${transformer.pagination.max-page-size:500}") int maxPageSize) {
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Clamps the requested page size to the configured maximum
+     */
+    public int pageSize(Integer requested) {
+        if (requested == null || requested <= 0) return Math.min(defaultPageSize, maxPageSize);
+        return Math.min(requested, maxPageSize);
+    }
+
+    /**
+     * Returns the id encoded in a cursor, or null for the first page
+     */
+    public Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Builds the response from {@code pageSize + 1} fetched rows
+     */
+    public <T> ResponseEntity<List<T>> respond(List<T> rows, int pageSize, Function<T, Long> idOf) {
+        if (rows.size() <= pageSize) {
+            return ResponseEntity.ok(rows);
+        }
+        List<T> page = rows.subList(0, pageSize);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, encode(idOf.apply(page.get(pageSize - 1))))
+                .body(page);
+    }
+}
@@ -0,0 +1,177 @@
+package com.webwizards.transformerApp.service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the monthly partitions of {@code anomalies} and {@code bounding_boxes} ahead of time and
+ * retires old ones.
+ *
+ * Upcoming months are created as plain tables and then attached, which only needs a SHARE UPDATE
+ * EXCLUSIVE lock on the parent, so inserts keep flowing. Months older than the retention period are
+ * detached with {@code DETACH PARTITION ... CONCURRENTLY} and moved into the {@code archive} schema,
+ * where they can be dumped or dropped without touching the live table. Partitions are named
+ * {@code <table>_pYYYY_MM}, matching the V6 migration.
+ */
+@Service
+public class PartitionMaintenanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionMaintenanceService.class);
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    /** Partitioned table and the literal suffix its bounds need (timestamp vs timestamptz in UTC) */
+    record PartitionedTable(String name, String boundSuffix) {}
+
+    static final List<PartitionedTable> TABLES = List.of(
+            new PartitionedTable("anomalies", ""),
+            new PartitionedTable("bounding_boxes", "+00"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final Period retention;
+    private final String archiveSchema;
+
+    public PartitionMaintenanceService(JdbcTemplate jdbcTemplate, DataSource dataSource,
+                                       @Value("${transformer.partitions.enabled:true}") boolean enabled,
+                                       @Value("${transformer.partitions.months-ahead:3}") int monthsAhead,
+                                       @Value("${transformer.partitions.retention:P24M}") Period retention,
+                                       @Value("${transformer.partitions.archive-schema:archive}") String archiveSchema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retention = retention;
+        this.archiveSchema = archiveSchema;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${transformer.partitions.cron:0 15 3 * * *}")
+    public void maintain() {
+        if (!enabled || !isPartitioned()) return;
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        for (PartitionedTable table : TABLES) {
+            try {
+                for (int i = 0; i <= monthsAhead; i++) {
+                    createPartition(table, current.plusMonths(i));
+                }
+                retire(table, current);
+            } catch (RuntimeException | SQLException e) {
+                log.error("Partition maintenance of {} failed: {}", table.name(), e.getMessage());
+            }
+        }
+    }
+
+    void createPartition(PartitionedTable table, YearMonth month) {
+        String partition = partitionName(table.name(), month);
+        if (isAttached(table.name(), partition)) return;
+        String from = bound(month, table.boundSuffix());
+        String to = bound(month.plusMonths(1), table.boundSuffix());
+        // IF NOT EXISTS picks up a table left behind by an interrupted run.
+        // The CHECK constraint lets ATTACH skip its validation scan; it is redundant afterwards.
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " (LIKE " + table.name()
+                + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        jdbcTemplate.execute("ALTER TABLE " + partition + " DROP CONSTRAINT IF EXISTS " + partition + "_range");
+        jdbcTemplate.execute("ALTER TABLE " + partition + " ADD CONSTRAINT " + partition + "_range CHECK (created_at >= '"
+                + from + "' AND created_at < '" + to + "')");
+        jdbcTemplate.execute("ALTER TABLE " + table.name() + " ATTACH PARTITION " + partition
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        jdbcTemplate.execute("ALTER TABLE " + partition + " DROP CONSTRAINT " + partition + "_range");
+        log.info("Created partition {}", partition);
+    }
+
+    private void retire(PartitionedTable table, YearMonth current) throws SQLException {
+        YearMonth cutoff = retentionCutoff(LocalDate.now(ZoneOffset.UTC), retention);
+        for (String partition : expired(table.name(), partitionsOf(table.name()), cutoff, current)) {
+            // DETACH ... CONCURRENTLY cannot run inside a transaction block, so use a plain autocommit connection
+            try (Connection con = dataSource.getConnection(); Statement st = con.createStatement()) {
+                con.setAutoCommit(true);
+                st.execute("ALTER TABLE " + table.name() + " DETACH PARTITION " + partition + " CONCURRENTLY");
+                st.execute("ALTER TABLE " + partition + " SET SCHEMA " + archiveSchema);
+            }
+            log.info("Detached partition {} into schema {}", partition, archiveSchema);
+        }
+    }
+
+    private boolean isPartitioned() {
+        try {
+            Integer n = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid "
+                            + "WHERE c.relname IN ('anomalies', 'bounding_boxes')", Integer.class);
+            return n != null && n == TABLES.size();
+        } catch (RuntimeException e) {
+            // not PostgreSQL (e.g. the H2 test database) or not migrated yet
+            return false;
+        }
+    }
+
+    private List<String> partitionsOf(String parent) {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = ? ORDER BY c.relname",
+                String.class, parent);
+    }
+
+    private boolean isAttached(String parent, String partition) {
+        return partitionsOf(parent).contains(partition);
+    }
+
+    /**
+     * First month that is kept: the month the retention period reaches back to from {@code today}
+     */
+    static YearMonth retentionCutoff(LocalDate today, Period retention) {
+        return YearMonth.from(today.minus(retention));
+    }
+
+    /**
+     * Monthly partitions of {@code table} lying wholly before both the cutoff and the current month.
+     * Partitions not named by {@link #partitionName} are never retired.
+     */
+    static List<String> expired(String table, List<String> partitions, YearMonth cutoff, YearMonth current) {
+        return partitions.stream().filter(partition -> {
+            YearMonth month = monthOf(table, partition);
+            return month != null && month.isBefore(cutoff) && month.isBefore(current);
+        }).toList();
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(SUFFIX);
+    }
+
+    static YearMonth monthOf(String table, String partition) {
+        String prefix = table + "_p";
+        if (!partition.startsWith(prefix)) return null;
+        try {
+            return YearMonth.parse(partition.substring(prefix.length()), SUFFIX);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String bound(YearMonth month, String suffix) {
+        return month.atDay(1) + " 00:00:00" + suffix;
+    }
+}
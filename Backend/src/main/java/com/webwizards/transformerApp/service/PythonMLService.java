@@ -21,11 +21,16 @@ import com.webwizards.transformerApp.dto.MLPredictionResponse;
 public class PythonMLService {
     
     private final ObjectMapper objectMapper;
+    private final RasterIngestService rasterIngestService;
+    private final TieredImageStorage imageStorage;
     private static final String PYTHON_SCRIPT_DIR = "Backend/ml_models/";
     private static final String ANALYZE_SCRIPT = "analyze.py";
     
-    public PythonMLService(ObjectMapper objectMapper) {
+    public PythonMLService(ObjectMapper objectMapper, RasterIngestService rasterIngestService,
+                           TieredImageStorage imageStorage) {
         this.objectMapper = objectMapper;
+        this.rasterIngestService = rasterIngestService;
+        this.imageStorage = imageStorage;
     }
     
     /**
@@ -46,9 +51,9 @@ public class PythonMLService {
                 return MLPredictionResponse.error("Candidate image path is required for thermal analysis");
             }
             
-            // Check if both image files exist
-            Path baselinePath = Paths.get(request.getBaselineImagePath());
-            Path candidatePath = Paths.get(request.getCandidateImagePath());
+            // Check if both image files exist (promoting them from the cold tier if archived)
+            Path baselinePath = imageStorage.resolve(request.getBaselineImagePath());
+            Path candidatePath = imageStorage.resolve(request.getCandidateImagePath());
             
             if (!baselinePath.toFile().exists()) {
                 return MLPredictionResponse.error("Baseline image file not found: " + request.getBaselineImagePath());
@@ -78,12 +83,15 @@ public class PythonMLService {
                     cwd.resolve("ML Model").resolve(ANALYZE_SCRIPT).toString());
             }
 
+            // Hand the script the raw raster sidecars when they exist so it maps instead of decoding
+            String[] inputs = resolveRasterInputs(baselinePath, candidatePath);
+
             // Use absolute path when invoking Python to avoid relative-path duplication
             processBuilder.command(
                 "python",
                 scriptPath.toAbsolutePath().toString(),
-                request.getBaselineImagePath(),
-                request.getCandidateImagePath()
+                inputs[0],
+                inputs[1]
             );
 
             // Keep the process working directory at the application's cwd
@@ -119,6 +127,38 @@ public class PythonMLService {
         }
     }
     
+    /**
+     * Picks the raster sidecars for a baseline/candidate pair, falling back to the original files.
+     * A baseline of a different size is resized ahead of time to the candidate's dimensions.
+     */
+    private String[] resolveRasterInputs(Path baselinePath, Path candidatePath) {
+        String baseline = baselinePath.toString();
+        String candidate = candidatePath.toString();
+        for (Path sidecar : new Path[] { rasterIngestService.sidecarFor(baselinePath), rasterIngestService.sidecarFor(candidatePath) }) {
+            if (imageStorage.exists(sidecar.toString())) imageStorage.resolve(sidecar.toString());
+        }
+        RasterIngestService.RasterInfo baseInfo = rasterIngestService.readInfo(baselinePath);
+        RasterIngestService.RasterInfo candInfo = rasterIngestService.readInfo(candidatePath);
+        if (candInfo != null) {
+            candidate = rasterIngestService.sidecarFor(candidatePath).toString();
+        }
+        if (baseInfo != null) {
+            baseline = rasterIngestService.sidecarFor(baselinePath).toString();
+            if (candInfo != null && (baseInfo.getWidth() != candInfo.getWidth() || baseInfo.getHeight() != candInfo.getHeight())) {
+                try {
+                    Path resized = rasterIngestService.resizedSidecarFor(baselinePath, candInfo.getWidth(), candInfo.getHeight());
+                    if (imageStorage.exists(resized.toString())) imageStorage.resolve(resized.toString());
+                    resized = rasterIngestService.ensureResized(baselinePath, candInfo.getWidth(), candInfo.getHeight());
+                    imageStorage.admit(resized);
+                    baseline = resized.toString();
+                } catch (IOException e) {
+                    // the script still resizes mismatched inputs itself
+                }
+            }
+        }
+        return new String[] { baseline, candidate };
+    }
+    
     /**
      * Calls the Python ML model with the given request (legacy method for backward compatibility)
      * @param request The prediction request containing image path and parameters
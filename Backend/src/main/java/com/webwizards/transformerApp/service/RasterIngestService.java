@@ -0,0 +1,275 @@
+package com.webwizards.transformerApp.service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import javax.imageio.ImageIO;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Decodes uploaded images once into a canonical raw RGB raster sidecar ({@code <file>.rgb})
+ * that the analyzers can memory-map instead of decoding the JPEG/PNG again.
+ *
+ * Sidecar layout (little-endian): a 64 byte header followed by {@code height * stride} bytes
+ * of interleaved 8-bit R,G,B pixels, row-major, top row first.
+ * <pre>
+ *  0  magic "TRGB"
+ *  4  u16 version, u16 channels (3)
+ *  8  i32 width
+ * 12  i32 height
+ * 16  i32 stride (bytes per row)
+ * 20  reserved
+ * 32  sha-256 of the original encoded file
+ * </pre>
+ */
+@Service
+public class RasterIngestService {
+
+    public static final String SIDECAR_EXTENSION = ".rgb";
+    public static final int HEADER_SIZE = 64;
+
+    private static final byte[] MAGIC = "TRGB".getBytes(StandardCharsets.US_ASCII);
+    private static final short VERSION = 1;
+    private static final short CHANNELS = 3;
+
+    /**
+     * Header of a raster sidecar
+     */
+    public static class RasterInfo {
+        private final int width;
+        private final int height;
+        private final int stride;
+        private final String sha256;
+
+        public RasterInfo(int width, int height, int stride, String sha256) {
+            this.width = width;
+            this.height = height;
+            this.stride = stride;
+            this.sha256 = sha256;
+        }
+
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+        public int getStride() { return stride; }
+        public String getSha256() { return sha256; }
+    }
+
+    /**
+     * A read-only mapping of a raster sidecar. Pixel (x, y) starts at
+     * {@code HEADER_SIZE + y * stride + x * 3}.
+     */
+    public static class MappedRaster {
+        private final RasterInfo info;
+        private final MappedByteBuffer buffer;
+
+        MappedRaster(RasterInfo info, MappedByteBuffer buffer) {
+            this.info = info;
+            this.buffer = buffer;
+        }
+
+        public RasterInfo getInfo() { return info; }
+        public MappedByteBuffer getBuffer() { return buffer; }
+    }
+
+    /**
+     * Returns the sidecar path for an original image path
+     */
+    public Path sidecarFor(Path original) {
+        return original.resolveSibling(original.getFileName().toString() + SIDECAR_EXTENSION);
+    }
+
+    /**
+     * Returns the path of the pre-resized sidecar used when an image has to be compared
+     * against one of a different size
+     */
+    public Path resizedSidecarFor(Path original, int width, int height) {
+        return original.resolveSibling(original.getFileName().toString() + "." + width + "x" + height + SIDECAR_EXTENSION);
+    }
+
+    /**
+     * Decodes the original image and writes its raster sidecar next to it
+     * @return the sidecar header, or null when the format cannot be decoded
+     */
+    public RasterInfo ingest(Path original) throws IOException {
+        MessageDigest digest = sha256();
+        BufferedImage image;
+        try (InputStream in = new DigestInputStream(Files.newInputStream(original), digest)) {
+            image = ImageIO.read(in);
+            // drain whatever the decoder left unread so the hash covers the whole file
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        if (image == null) {
+            return null;
+        }
+        byte[] hash = digest.digest();
+        RasterInfo info = new RasterInfo(image.getWidth(), image.getHeight(), image.getWidth() * CHANNELS,
+                HexFormat.of().formatHex(hash));
+        writeSidecar(sidecarFor(original), info, hash, image);
+        return info;
+    }
+
+    /**
+     * Returns the sidecar header if a sidecar newer than the original exists, otherwise null
+     */
+    public RasterInfo readInfo(Path original) {
+        Path sidecar = sidecarFor(original);
+        try {
+            if (!Files.exists(sidecar)
+                    || Files.getLastModifiedTime(sidecar).compareTo(Files.getLastModifiedTime(original)) < 0) {
+                return null;
+            }
+            try (FileChannel channel = FileChannel.open(sidecar, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                while (header.hasRemaining() && channel.read(header) >= 0) { }
+                header.flip();
+                return parseHeader(header);
+            }
+        } catch (IOException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Maps a raster sidecar read-only
+     */
+    public MappedRaster map(Path sidecar) throws IOException {
+        try (FileChannel channel = FileChannel.open(sidecar, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            RasterInfo info = parseHeader(buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN));
+            return new MappedRaster(info, buffer);
+        }
+    }
+
+    /**
+     * Returns a sidecar of the original resized to the given size, creating it from the mapped
+     * raster on first use. This is the resize analyze.py used to do on every run. When the
+     * original already has that size its own sidecar is returned.
+     */
+    public Path ensureResized(Path original, int width, int height) throws IOException {
+        Path target = resizedSidecarFor(original, width, height);
+        Path source = sidecarFor(original);
+        RasterInfo info = readInfo(original);
+        if (info != null && info.getWidth() == width && info.getHeight() == height) {
+            return source;
+        }
+        if (Files.exists(target) && Files.getLastModifiedTime(target).compareTo(Files.getLastModifiedTime(source)) >= 0) {
+            return target;
+        }
+        MappedRaster raster = map(source);
+        RasterInfo src = raster.getInfo();
+        ByteBuffer in = raster.getBuffer();
+        int stride = width * CHANNELS;
+        byte[] pixels = new byte[stride * height];
+
+        // bilinear resampling with pixel-centre alignment, same as PIL's BILINEAR for upscaling
+        double sx = (double) src.getWidth() / width;
+        double sy = (double) src.getHeight() / height;
+        for (int y = 0; y < height; y++) {
+            double fy = Math.max(0, (y + 0.5) * sy - 0.5);
+            int y0 = Math.min((int) fy, src.getHeight() - 1);
+            int y1 = Math.min(y0 + 1, src.getHeight() - 1);
+            double wy = fy - y0;
+            for (int x = 0; x < width; x++) {
+                double fx = Math.max(0, (x + 0.5) * sx - 0.5);
+                int x0 = Math.min((int) fx, src.getWidth() - 1);
+                int x1 = Math.min(x0 + 1, src.getWidth() - 1);
+                double wx = fx - x0;
+                for (int c = 0; c < CHANNELS; c++) {
+                    double p00 = in.get(HEADER_SIZE + y0 * src.getStride() + x0 * CHANNELS + c) & 0xff;
+                    double p01 = in.get(HEADER_SIZE + y0 * src.getStride() + x1 * CHANNELS + c) & 0xff;
+                    double p10 = in.get(HEADER_SIZE + y1 * src.getStride() + x0 * CHANNELS + c) & 0xff;
+                    double p11 = in.get(HEADER_SIZE + y1 * src.getStride() + x1 * CHANNELS + c) & 0xff;
+                    double top = p00 + (p01 - p00) * wx;
+                    double bottom = p10 + (p11 - p10) * wx;
+                    pixels[y * stride + x * CHANNELS + c] = (byte) Math.round(top + (bottom - top) * wy);
+                }
+            }
+        }
+
+        byte[] hash = HexFormat.of().parseHex(src.getSha256());
+        writeSidecar(target, new RasterInfo(width, height, stride, src.getSha256()), hash, pixels);
+        return target;
+    }
+
+    private void writeSidecar(Path target, RasterInfo info, byte[] hash, BufferedImage image) throws IOException {
+        int[] row = new int[info.getWidth()];
+        byte[] pixels = new byte[info.getStride() * info.getHeight()];
+        for (int y = 0; y < info.getHeight(); y++) {
+            image.getRGB(0, y, info.getWidth(), 1, row, 0, info.getWidth());
+            int base = y * info.getStride();
+            for (int x = 0; x < info.getWidth(); x++) {
+                int rgb = row[x];
+                pixels[base + x * 3] = (byte) (rgb >> 16);
+                pixels[base + x * 3 + 1] = (byte) (rgb >> 8);
+                pixels[base + x * 3 + 2] = (byte) rgb;
+            }
+        }
+        writeSidecar(target, info, hash, pixels);
+    }
+
+    private void writeSidecar(Path target, RasterInfo info, byte[] hash, byte[] pixels) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC);
+        header.putShort(VERSION);
+        header.putShort(CHANNELS);
+        header.putInt(info.getWidth());
+        header.putInt(info.getHeight());
+        header.putInt(info.getStride());
+        header.position(32);
+        header.put(hash, 0, 32);
+        header.rewind();
+
+        // write to a temp file and move it into place so readers never map a half-written raster
+        Path tmp = target.resolveSibling(target.getFileName().toString() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer body = ByteBuffer.wrap(pixels);
+            while (header.hasRemaining()) channel.write(header);
+            while (body.hasRemaining()) channel.write(body);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private RasterInfo parseHeader(ByteBuffer header) {
+        byte[] magic = new byte[4];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IllegalStateException("Not a raster sidecar");
+        }
+        header.getShort(); // version
+        header.getShort(); // channels
+        int width = header.getInt();
+        int height = header.getInt();
+        int stride = header.getInt();
+        byte[] hash = new byte[32];
+        header.position(32);
+        header.get(hash);
+        return new RasterInfo(width, height, stride, HexFormat.of().formatHex(hash));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.webwizards.transformerApp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.webwizards.transformerApp.dto.SyncPage;
+import com.webwizards.transformerApp.model.Inspection;
+import com.webwizards.transformerApp.model.Transformer;
+import com.webwizards.transformerApp.repository.InspectionRepository;
+import com.webwizards.transformerApp.repository.TransformerRepository;
+
+/**
+ * Change feed of transformers and inspections for GET /api/sync (PostgreSQL only).
+ *
+ * Rows carry the id of the transaction that last wrote them as {@code row_version}, and deletes
+ * leave tombstones (V13). A page is the next {@code limit} changes in (version, kind, id) order,
+ * then the rows themselves by id, so a sync costs a few indexed queries per page however large the
+ * tables are. Each pass starts from the snapshot xmin taken at the start of the previous one: a
+ * transaction that commits during a pass has a version at or above it and is picked up by the
+ * next pass, at the price of resending the rows written since.
+ */
+@Service
+public class SyncService {
+
+    // feed order of the kinds of change within one version; tombstones sort by entity name
+    static final int TRANSFORMER = 0;
+    static final int INSPECTION = 1;
+    static final int INSPECTION_DELETED = 2;
+    static final int TRANSFORMER_DELETED = 3;
+
+    private record Change(long version, int kind, long id) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransformerRepository transformerRepository;
+    private final InspectionRepository inspectionRepository;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public SyncService(JdbcTemplate jdbcTemplate, TransformerRepository transformerRepository,
+                       InspectionRepository inspectionRepository,
+                       @Value("${transformer.sync.default-page-size:500}") int defaultPageSize,
+                       @Value("${transformer.sync.max-page-size:5000}") int maxPageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transformerRepository = transformerRepository;
+        this.inspectionRepository = inspectionRepository;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Transactional(readOnly = true)
+    public SyncPage changes(String since, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? Math.min(defaultPageSize, maxPageSize) : Math.min(limit, maxPageSize);
+        SyncToken token = SyncToken.decode(since);
+        if (token.isStart()) {
+            long xmin = jdbcTemplate.queryForObject("SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint", Long.class);
+            token = new SyncToken(token.floor(), xmin, token.floor(), -1, 0);
+        }
+
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT v, k, id FROM ("
+                + rows("SELECT row_version AS v, " + TRANSFORMER + " AS k, id FROM transformers", TRANSFORMER, token, pageSize, args)
+                + " UNION ALL "
+                + rows("SELECT row_version, " + INSPECTION + ", id FROM inspections", INSPECTION, token, pageSize, args)
+                + " UNION ALL "
+                + tombstones(token, pageSize, args)
+                + ") c ORDER BY v, k, id LIMIT ?";
+        args.add(pageSize + 1);
+        List<Change> changes = jdbcTemplate.query(sql, (rs, i) -> new Change(rs.getLong(1), rs.getInt(2), rs.getLong(3)),
+                args.toArray());
+
+        boolean hasMore = changes.size() > pageSize;
+        if (hasMore) changes = changes.subList(0, pageSize);
+        String next;
+        if (hasMore) {
+            Change last = changes.get(changes.size() - 1);
+            next = token.after(last.version(), last.kind(), last.id()).encode();
+        } else {
+            next = SyncToken.start(token.nextFloor()).encode();
+        }
+
+        List<Transformer> transformers = load(changes, TRANSFORMER, transformerRepository::findAllById, Transformer::getId);
+        List<Inspection> inspections = load(changes, INSPECTION, inspectionRepository::findAllById, Inspection::getId);
+        List<SyncPage.Deleted> deleted = changes.stream()
+                .filter(c -> c.kind() == INSPECTION_DELETED || c.kind() == TRANSFORMER_DELETED)
+                .map(c -> new SyncPage.Deleted(c.kind() == INSPECTION_DELETED ? "inspection" : "transformer", c.id()))
+                .toList();
+        return new SyncPage(transformers, inspections, deleted, next, hasMore);
+    }
+
+    // one kind's changes after the token's position, written so the (row_version, id) index serves it
+    private static String rows(String select, int kind, SyncToken t, int pageSize, List<Object> args) {
+        StringBuilder sql = new StringBuilder("(").append(select).append(" WHERE row_version >= ?");
+        args.add(t.floor());
+        if (kind > t.entity()) {
+            sql.append(" AND row_version >= ?");
+            args.add(t.version());
+        } else if (kind == t.entity()) {
+            sql.append(" AND (row_version, id) > (?, ?)");
+            args.add(t.version());
+            args.add(t.id());
+        } else {
+            sql.append(" AND row_version > ?");
+            args.add(t.version());
+        }
+        sql.append(" ORDER BY row_version, id LIMIT ?)");
+        args.add(pageSize + 1);
+        return sql.toString();
+    }
+
+    private static String tombstones(SyncToken t, int pageSize, List<Object> args) {
+        StringBuilder sql = new StringBuilder("(SELECT row_version, CASE entity WHEN 'inspection' THEN ")
+                .append(INSPECTION_DELETED).append(" ELSE ").append(TRANSFORMER_DELETED)
+                .append(" END, entity_id FROM sync_tombstones WHERE row_version >= ?");
+        args.add(t.floor());
+        if (t.entity() < INSPECTION_DELETED) {
+            sql.append(" AND row_version >= ?");
+            args.add(t.version());
+        } else {
+            sql.append(" AND (row_version, entity, entity_id) > (?, ?, ?)");
+            args.add(t.version());
+            args.add(t.entity() == INSPECTION_DELETED ? "inspection" : "transformer");
+            args.add(t.id());
+        }
+        sql.append(" ORDER BY row_version, entity, entity_id LIMIT ?)");
+        args.add(pageSize + 1);
+        return sql.toString();
+    }
+
+    private static <T> List<T> load(List<Change> changes, int kind, Function<List<Long>, List<T>> findAllById,
+                                    Function<T, Long> idOf) {
+        List<Long> ids = changes.stream().filter(c -> c.kind() == kind).map(Change::id).toList();
+        if (ids.isEmpty()) return List.of();
+        Map<Long, T> byId = findAllById.apply(ids).stream().collect(Collectors.toMap(idOf, Function.identity()));
+        // a row deleted since the feed was read is left out; its tombstone follows
+        return ids.stream().map(byId::get).filter(r -> r != null).toList();
+    }
+}
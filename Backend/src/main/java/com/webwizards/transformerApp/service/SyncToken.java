@@ -0,0 +1,51 @@
+package com.webwizards.transformerApp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the change feed of GET /api/sync, handed to clients as an opaque string.
+ *
+ * A sync pass reads the changes with {@code row_version >= floor} in (version, entity, id) order,
+ * page by page. {@code nextFloor} is the snapshot xmin taken when the pass started, and the floor
+ * of the pass after it; a token at the start of a pass has no position.
+ *
+ * @param entity rank of the change's kind in the feed order, -1 before the first change
+ */
+public record SyncToken(long floor, long nextFloor, long version, int entity, long id) {
+
+    /** Token of a pass that has not started, reading everything from {@code floor} */
+    public static SyncToken start(long floor) {
+        return new SyncToken(floor, -1, floor, -1, 0);
+    }
+
+    public boolean isStart() {
+        return nextFloor < 0;
+    }
+
+    public SyncToken after(long version, int entity, long id) {
+        return new SyncToken(floor, nextFloor, version, entity, id);
+    }
+
+    public String encode() {
+        String raw = isStart() ? Long.toString(floor)
+                : floor + ":" + nextFloor + ":" + version + ":" + entity + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @param token a token from an earlier response, or null or blank for a full sync
+     */
+    public static SyncToken decode(String token) {
+        if (token == null || token.isBlank()) return start(0);
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII).split(":");
+            if (parts.length == 1) return start(Long.parseLong(parts[0]));
+            if (parts.length != 5) throw new IllegalArgumentException();
+            return new SyncToken(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]),
+                    Integer.parseInt(parts[3]), Long.parseLong(parts[4]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.webwizards.transformerApp.service;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.webwizards.transformerApp.dto.SearchHit;
+
+/**
+ * Full-text search over the free text of general records and work data sheets (PostgreSQL only).
+ *
+ * Matches come from the GIN-indexed {@code search_vector} columns and are ranked with
+ * {@code ts_rank_cd}, recommended actions weighing more than remarks and notes. Highlights are
+ * built only for the hits returned, since {@code ts_headline} re-parses the text.
+ */
+@Service
+public class TextSearchService {
+
+    public static final String GENERAL_RECORD = "general-record";
+    public static final String WORK_DATA_SHEET = "work-data-sheet";
+
+    private static final String HEADLINE_OPTIONS = "StartSel=<mark>, StopSel=</mark>, MaxWords=25, MinWords=8, MaxFragments=2";
+
+    private static final String GENERAL_RECORDS =
+            "SELECT '" + GENERAL_RECORD + "' AS type, g.id, g.date, ts_rank_cd(g.search_vector, q.query) AS rank,"
+                    + " g.recommended_action AS text_a, g.additional_remarks AS text_b"
+                    + " FROM general_record g, q WHERE g.search_vector @@ q.query";
+    private static final String WORK_DATA_SHEETS =
+            "SELECT '" + WORK_DATA_SHEET + "' AS type, w.id, w.work_date AS date, ts_rank_cd(w.search_vector, q.query) AS rank,"
+                    + " w.work_notes AS text_a, NULL AS text_b"
+                    + " FROM work_data_sheet w, q WHERE w.search_vector @@ q.query";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public TextSearchService(JdbcTemplate jdbcTemplate,
+                             @Value("${transformer.search.default-limit:20}") int defaultLimit,
+                             @Value("${transformer.search.max-limit:100}") int maxLimit) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * @param query web-search syntax: words, {@code "quoted phrases"}, {@code or}, {@code -excluded}
+     * @param type  {@link #GENERAL_RECORD}, {@link #WORK_DATA_SHEET}, or null for both
+     */
+    @Transactional(readOnly = true)
+    public List<SearchHit> search(String query, String type, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("q must not be blank");
+        }
+        List<String> sources = new ArrayList<>();
+        if (type == null || type.isBlank() || type.equals(GENERAL_RECORD)) sources.add(GENERAL_RECORDS);
+        if (type == null || type.isBlank() || type.equals(WORK_DATA_SHEET)) sources.add(WORK_DATA_SHEETS);
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("Unknown type: " + type + " (expected " + GENERAL_RECORD + " or "
+                    + WORK_DATA_SHEET + ")");
+        }
+        int n = limit == null ? defaultLimit : limit;
+        if (n < 1 || n > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+        }
+
+        String sql = "WITH q AS (SELECT websearch_to_tsquery('english', ?) AS query),"
+                + " hits AS (" + String.join(" UNION ALL ", sources) + " ORDER BY rank DESC, type, id LIMIT ?)"
+                + " SELECT h.type, h.id, h.date, h.rank,"
+                + " ts_headline('english', h.text_a, q.query, '" + HEADLINE_OPTIONS + "'),"
+                + " ts_headline('english', h.text_b, q.query, '" + HEADLINE_OPTIONS + "')"
+                + " FROM hits h, q ORDER BY h.rank DESC, h.type, h.id";
+        return jdbcTemplate.query(sql, (rs, i) -> {
+            String hitType = rs.getString(1);
+            Map<String, String> highlights = new LinkedHashMap<>();
+            if (GENERAL_RECORD.equals(hitType)) {
+                putIfPresent(highlights, "recommendedAction", rs.getString(5));
+                putIfPresent(highlights, "additionalRemarks", rs.getString(6));
+            } else {
+                putIfPresent(highlights, "workNotes", rs.getString(5));
+            }
+            Date date = rs.getDate(3);
+            return new SearchHit(hitType, rs.getLong(2), date == null ? null : date.toLocalDate(), rs.getDouble(4),
+                    highlights);
+        }, query, n);
+    }
+
+    private static void putIfPresent(Map<String, String> highlights, String field, String text) {
+        if (text != null && !text.isBlank()) highlights.put(field, text);
+    }
+}
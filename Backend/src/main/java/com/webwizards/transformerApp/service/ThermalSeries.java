@@ -0,0 +1,204 @@
+package com.webwizards.transformerApp.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One chunk of a transformer's thermal metrics: a point per analysed inspection, sorted by time.
+ *
+ * Held column-wise in primitive arrays. The encoded form starts with a version byte and the point
+ * count, then the timestamps (epoch seconds) and inspection ids as zigzag varint deltas, then each
+ * metric as a little-endian float32 column. A missing metric is NaN.
+ */
+public final class ThermalSeries {
+
+    public static final String[] METRICS = { "prob", "histDistance", "dv95", "warmFraction" };
+    private static final byte VERSION = 1;
+
+    private long[] times;
+    private long[] inspectionIds;
+    private final float[][] values;   // [metric][point]
+    private int size;
+
+    public ThermalSeries() {
+        this(8);
+    }
+
+    private ThermalSeries(int capacity) {
+        times = new long[capacity];
+        inspectionIds = new long[capacity];
+        values = new float[METRICS.length][capacity];
+    }
+
+    public int size() { return size; }
+    public long time(int i) { return times[i]; }
+    public long inspectionId(int i) { return inspectionIds[i]; }
+    public float value(int metric, int i) { return values[metric][i]; }
+
+    /**
+     * Adds a point, replacing the one of the same inspection if there is one
+     */
+    public void put(long time, long inspectionId, float[] metrics) {
+        remove(inspectionId);
+        if (size == times.length) grow();
+        int at = size;
+        while (at > 0 && (times[at - 1] > time || (times[at - 1] == time && inspectionIds[at - 1] > inspectionId))) at--;
+        System.arraycopy(times, at, times, at + 1, size - at);
+        System.arraycopy(inspectionIds, at, inspectionIds, at + 1, size - at);
+        times[at] = time;
+        inspectionIds[at] = inspectionId;
+        for (int m = 0; m < METRICS.length; m++) {
+            System.arraycopy(values[m], at, values[m], at + 1, size - at);
+            values[m][at] = metrics[m];
+        }
+        size++;
+    }
+
+    private void remove(long inspectionId) {
+        for (int i = 0; i < size; i++) {
+            if (inspectionIds[i] != inspectionId) continue;
+            System.arraycopy(times, i + 1, times, i, size - i - 1);
+            System.arraycopy(inspectionIds, i + 1, inspectionIds, i, size - i - 1);
+            for (float[] column : values) System.arraycopy(column, i + 1, column, i, size - i - 1);
+            size--;
+            return;
+        }
+    }
+
+    private void grow() {
+        int capacity = times.length * 2;
+        times = Arrays.copyOf(times, capacity);
+        inspectionIds = Arrays.copyOf(inspectionIds, capacity);
+        for (int m = 0; m < METRICS.length; m++) values[m] = Arrays.copyOf(values[m], capacity);
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + size * (4 + METRICS.length * 4));
+        out.write(VERSION);
+        writeVarint(out, size);
+        writeDeltas(out, times, size);
+        writeDeltas(out, inspectionIds, size);
+        ByteBuffer floats = ByteBuffer.allocate(size * METRICS.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (float[] column : values) {
+            for (int i = 0; i < size; i++) floats.putFloat(column[i]);
+        }
+        out.write(floats.array(), 0, floats.capacity());
+        return out.toByteArray();
+    }
+
+    public static ThermalSeries decode(byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        byte version = in.get();
+        if (version != VERSION) throw new IllegalStateException("Unknown thermal series version " + version);
+        int n = (int) readVarint(in);
+        ThermalSeries series = new ThermalSeries(Math.max(n, 1));
+        readDeltas(in, series.times, n);
+        readDeltas(in, series.inspectionIds, n);
+        for (float[] column : series.values) {
+            for (int i = 0; i < n; i++) column[i] = in.getFloat();
+        }
+        series.size = n;
+        return series;
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets downsampling of one metric over [from, to] (epoch seconds).
+     * Keeps the first and last point and, for each bucket in between, the point that spans the
+     * largest triangle with its neighbours, so peaks survive. Missing values are skipped.
+     *
+     * @return [time, value] pairs, at most {@code threshold} of them
+     */
+    public static List<double[]> lttb(List<ThermalSeries> chunks, int metric, long from, long to, int threshold) {
+        int total = 0;
+        for (ThermalSeries s : chunks) total += s.size;
+        double[] xs = new double[total];
+        double[] ys = new double[total];
+        int n = 0;
+        for (ThermalSeries s : chunks) {
+            for (int i = 0; i < s.size; i++) {
+                float v = s.values[metric][i];
+                if (s.times[i] < from || s.times[i] > to || Float.isNaN(v)) continue;
+                xs[n] = s.times[i];
+                ys[n] = v;
+                n++;
+            }
+        }
+
+        List<double[]> out = new ArrayList<>(Math.min(n, threshold));
+        if (threshold >= n || threshold < 3) {
+            for (int i = 0; i < n; i++) out.add(new double[] { xs[i], ys[i] });
+            return out;
+        }
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        out.add(new double[] { xs[0], ys[0] });
+        for (int b = 0; b < threshold - 2; b++) {
+            // average of the next bucket is the third corner of the triangle
+            int nextStart = (int) Math.floor((b + 1) * every) + 1;
+            int nextEnd = Math.min((int) Math.floor((b + 2) * every) + 1, n);
+            double avgX = 0, avgY = 0;
+            for (int j = nextStart; j < nextEnd; j++) {
+                avgX += xs[j];
+                avgY += ys[j];
+            }
+            int count = Math.max(nextEnd - nextStart, 1);
+            avgX /= count;
+            avgY /= count;
+
+            int start = (int) Math.floor(b * every) + 1;
+            int end = (int) Math.floor((b + 1) * every) + 1;
+            double maxArea = -1;
+            int chosen = start;
+            for (int j = start; j < end; j++) {
+                double area = Math.abs((xs[a] - avgX) * (ys[j] - ys[a]) - (xs[a] - xs[j]) * (avgY - ys[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = j;
+                }
+            }
+            out.add(new double[] { xs[chosen], ys[chosen] });
+            a = chosen;
+        }
+        out.add(new double[] { xs[n - 1], ys[n - 1] });
+        return out;
+    }
+
+    private static void writeDeltas(ByteArrayOutputStream out, long[] column, int n) {
+        long prev = 0;
+        for (int i = 0; i < n; i++) {
+            long delta = column[i] - prev;
+            writeVarint(out, (delta << 1) ^ (delta >> 63));
+            prev = column[i];
+        }
+    }
+
+    private static void readDeltas(ByteBuffer in, long[] column, int n) {
+        long prev = 0;
+        for (int i = 0; i < n; i++) {
+            long zigzag = readVarint(in);
+            prev += (zigzag >>> 1) ^ -(zigzag & 1);
+            column[i] = prev;
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.webwizards.transformerApp.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webwizards.transformerApp.dto.InspectionRef;
+import com.webwizards.transformerApp.repository.InspectionRepository;
+
+/**
+ * Stores the thermal metrics of each analysis in {@code thermal_series_chunks} and reads them back
+ * as downsampled trends.
+ *
+ * A point is keyed by the inspection's date and time and belongs to the inspection's transformer;
+ * re-analysing an inspection replaces its point. Writes rewrite one yearly chunk under a row lock,
+ * reads decode only the chunks overlapping the requested range.
+ */
+@Service
+public class ThermalTrendService {
+
+    private static final Logger log = LoggerFactory.getLogger(ThermalTrendService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InspectionRepository inspectionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultPoints;
+    private final int maxPoints;
+
+    public ThermalTrendService(JdbcTemplate jdbcTemplate, InspectionRepository inspectionRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${transformer.thermal-trend.default-points:300}") int defaultPoints,
+                               @Value("${transformer.thermal-trend.max-points:2000}") int maxPoints) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.inspectionRepository = inspectionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.defaultPoints = defaultPoints;
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * Records the metrics of an analysis of the given inspection. Analyses of inspections without a
+     * transformer, or without any of the metrics, are ignored. A failure is logged, not thrown, so
+     * it never fails the analysis itself.
+     */
+    public void record(Long inspectionId, Double prob, Double histDistance, Double dv95, Double warmFraction) {
+        if (inspectionId == null || (prob == null && histDistance == null && dv95 == null && warmFraction == null)) return;
+        try {
+            InspectionRef inspection = inspectionRepository.findRefById(inspectionId).orElse(null);
+            if (inspection == null || inspection.transformerId() == null) return;
+            float[] metrics = { toFloat(prob), toFloat(histDistance), toFloat(dv95), toFloat(warmFraction) };
+            transactionTemplate.executeWithoutResult(status -> append(inspection, metrics));
+        } catch (RuntimeException e) {
+            log.warn("Could not record thermal metrics of inspection {}: {}", inspectionId, e.getMessage());
+        }
+    }
+
+    private void append(InspectionRef inspection, float[] metrics) {
+        LocalDateTime at = inspection.date() == null ? LocalDateTime.now(ZoneOffset.UTC)
+                : inspection.date().atTime(inspection.time() == null ? LocalTime.MIDNIGHT : inspection.time());
+        long transformerId = inspection.transformerId();
+        int year = at.getYear();
+
+        // take the chunk's row lock first so concurrent analyses of one transformer append in turn
+        jdbcTemplate.update("INSERT INTO thermal_series_chunks (transformer_id, chunk_year, point_count, first_at, last_at, data)"
+                + " VALUES (?, ?, 0, ?, ?, ?) ON CONFLICT (transformer_id, chunk_year) DO NOTHING",
+                transformerId, year, Timestamp.valueOf(at), Timestamp.valueOf(at), new ThermalSeries().encode());
+        byte[] data = jdbcTemplate.queryForObject(
+                "SELECT data FROM thermal_series_chunks WHERE transformer_id = ? AND chunk_year = ? FOR UPDATE",
+                byte[].class, transformerId, year);
+
+        ThermalSeries series = ThermalSeries.decode(data);
+        series.put(at.toEpochSecond(ZoneOffset.UTC), inspection.id(), metrics);
+        jdbcTemplate.update("UPDATE thermal_series_chunks SET point_count = ?, first_at = ?, last_at = ?, data = ?"
+                + " WHERE transformer_id = ? AND chunk_year = ?",
+                series.size(), timestamp(series.time(0)), timestamp(series.time(series.size() - 1)), series.encode(),
+                transformerId, year);
+        log.debug("Recorded thermal metrics of inspection {} for transformer {}", inspection.id(), transformerId);
+    }
+
+    /**
+     * Each metric of a transformer between {@code from} and {@code to} (both optional), LTTB
+     * downsampled to at most {@code points} [epochMillis, value] pairs.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> trend(Long transformerId, LocalDateTime from, LocalDateTime to, Integer points) {
+        int threshold = points == null ? defaultPoints : points;
+        if (threshold < 3 || threshold > maxPoints) {
+            throw new IllegalArgumentException("points must be between 3 and " + maxPoints);
+        }
+        LocalDateTime lower = from == null ? LocalDateTime.of(1900, 1, 1, 0, 0) : from;
+        LocalDateTime upper = to == null ? LocalDateTime.of(9999, 12, 31, 23, 59, 59) : to;
+        List<ThermalSeries> chunks = jdbcTemplate.query(
+                "SELECT data FROM thermal_series_chunks WHERE transformer_id = ? AND last_at >= ? AND first_at <= ?"
+                        + " ORDER BY chunk_year",
+                (rs, i) -> ThermalSeries.decode(rs.getBytes(1)),
+                transformerId, Timestamp.valueOf(lower), Timestamp.valueOf(upper));
+
+        long fromSecond = lower.toEpochSecond(ZoneOffset.UTC);
+        long toSecond = upper.toEpochSecond(ZoneOffset.UTC);
+        Map<String, Object> series = new LinkedHashMap<>();
+        for (int m = 0; m < ThermalSeries.METRICS.length; m++) {
+            series.put(ThermalSeries.METRICS[m], ThermalSeries.lttb(chunks, m, fromSecond, toSecond, threshold).stream()
+                    .map(p -> new double[] { p[0] * 1000, p[1] })
+                    .toList());
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("transformerId", transformerId);
+        body.put("series", series);
+        return body;
+    }
+
+    private static float toFloat(Double v) {
+        return v == null ? Float.NaN : v.floatValue();
+    }
+
+    private static Timestamp timestamp(long epochSecond) {
+        return Timestamp.valueOf(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
+    }
+}
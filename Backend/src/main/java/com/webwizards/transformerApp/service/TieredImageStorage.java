@@ -0,0 +1,422 @@
+package com.webwizards.transformerApp.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Two-tier blob storage behind {@code InspectionImage.filePath}.
+ *
+ * The hot tier is the uploads directory, kept under a byte budget with LRU eviction. Evicted
+ * blobs, and blobs not read for a while, are gzipped into the cold tier (a local archive
+ * directory standing in for object storage). {@link #resolve(String)} transparently promotes a
+ * cold blob back into the hot tier, so callers keep using the original hot path.
+ *
+ * Compression and decompression run outside the storage lock. Demotion picks its victims under
+ * the lock, gzips them without it, and only removes the hot copy if the blob was not read or
+ * replaced in the meantime; otherwise the compressed copy is discarded.
+ */
+@Service
+public class TieredImageStorage {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredImageStorage.class);
+    private static final String COLD_SUFFIX = ".gz";
+
+    private final Path hotDir;
+    private final Path coldDir;
+    private final long hotBudgetBytes;
+    private final Duration demoteAfter;
+    private final Duration minResidency;
+
+    // access-ordered: eldest entry is the least recently used blob
+    private final LinkedHashMap<Path, HotEntry> hot = new LinkedHashMap<>(256, 0.75f, true);
+    private final AtomicLong hotBytes = new AtomicLong();
+    private final AtomicLong coldBytes = new AtomicLong();
+    private final AtomicLong coldFiles = new AtomicLong();
+    // blobs picked for demotion whose compression is still running; guarded by this
+    private final Set<Path> demoting = new HashSet<>();
+    private long demotingBytes;
+
+    private final Counter hits;
+    private final Counter promotions;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Timer promotionLatency;
+
+    private static class HotEntry {
+        long size;
+        long lastAccess;
+        // bumped on every read so a demotion can tell the blob was used while it was compressing
+        long reads;
+
+        HotEntry(long size, long lastAccess) {
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+
+        void touch() {
+            lastAccess = System.currentTimeMillis();
+            reads++;
+        }
+    }
+
+    private record Victim(Path path, HotEntry entry, long reads) { }
+
+    public TieredImageStorage(
+            @Value("${transformer.storage.hot-dir:${user.dir}/uploads}") String hotDir,
+            @Value("${transformer.storage.cold-dir:${user.dir}/archive}") String coldDir,
+            @Value("${transformer.storage.hot-budget:2GB}") DataSize hotBudget,
+            @Value("${transformer.storage.demote-after:P30D}") Duration demoteAfter,
+            @Value("${transformer.storage.min-residency:PT2M}") Duration minResidency,
+            MeterRegistry registry) {
+        this.hotDir = Paths.get(hotDir).toAbsolutePath().normalize();
+        this.coldDir = Paths.get(coldDir).toAbsolutePath().normalize();
+        this.hotBudgetBytes = hotBudget.toBytes();
+        this.demoteAfter = demoteAfter;
+        this.minResidency = minResidency;
+
+        Gauge.builder("storage.tier.bytes", hotBytes, AtomicLong::get).tag("tier", "hot").baseUnit("bytes").register(registry);
+        Gauge.builder("storage.tier.bytes", coldBytes, AtomicLong::get).tag("tier", "cold").baseUnit("bytes").register(registry);
+        Gauge.builder("storage.tier.files", this, s -> s.hotFileCount()).tag("tier", "hot").register(registry);
+        Gauge.builder("storage.tier.files", coldFiles, AtomicLong::get).tag("tier", "cold").register(registry);
+        Gauge.builder("storage.tier.budget", () -> hotBudgetBytes).tag("tier", "hot").baseUnit("bytes").register(registry);
+        this.hits = Counter.builder("storage.reads").tag("result", "hot").register(registry);
+        this.promotions = Counter.builder("storage.reads").tag("result", "promoted").register(registry);
+        this.misses = Counter.builder("storage.reads").tag("result", "miss").register(registry);
+        this.evictions = Counter.builder("storage.evictions").register(registry);
+        this.promotionLatency = Timer.builder("storage.promotion.latency").register(registry);
+    }
+
+    @PostConstruct
+    void scan() throws IOException {
+        Files.createDirectories(hotDir);
+        Files.createDirectories(coldDir);
+
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(hotDir)) {
+            walk.filter(Files::isRegularFile).forEach(files::add);
+        }
+        files.sort(Comparator.comparing(TieredImageStorage::lastModified));
+        List<Victim> victims;
+        synchronized (this) {
+            for (Path f : files) {
+                track(f, lastModified(f).toMillis());
+            }
+            victims = overBudget(null);
+        }
+        demote(victims, true);
+
+        try (Stream<Path> walk = Files.walk(coldDir)) {
+            walk.filter(Files::isRegularFile).forEach(f -> {
+                coldBytes.addAndGet(size(f));
+                coldFiles.incrementAndGet();
+            });
+        }
+    }
+
+    /**
+     * Directory new blobs should be written to
+     */
+    public Path hotDirectory() {
+        return hotDir;
+    }
+
+    /**
+     * Registers a blob that was just written into the hot tier and evicts older blobs if the
+     * budget is exceeded
+     */
+    public void admit(Path file) {
+        Path p = file.toAbsolutePath().normalize();
+        List<Victim> victims;
+        synchronized (this) {
+            HotEntry previous = hot.remove(p);
+            if (previous != null) hotBytes.addAndGet(-previous.size);
+            track(p, System.currentTimeMillis());
+            victims = overBudget(p);
+        }
+        demote(victims, true);
+    }
+
+    /**
+     * Returns a readable hot path for a stored blob, promoting it from the cold tier if needed.
+     * Paths outside the hot directory, and files that were never admitted, are returned unchanged.
+     */
+    public Path resolve(String filePath) {
+        Path p = Paths.get(filePath).toAbsolutePath().normalize();
+        if (!p.startsWith(hotDir)) {
+            return p;
+        }
+        Path cold = coldPathFor(p);
+        synchronized (this) {
+            HotEntry entry = hot.get(p);
+            if (entry != null && Files.exists(p)) {
+                entry.touch();
+                hits.increment();
+                return p;
+            }
+            if (entry != null) {
+                // removed behind our back
+                hot.remove(p);
+                hotBytes.addAndGet(-entry.size);
+            }
+            if (!Files.exists(cold)) {
+                if (Files.exists(p)) {
+                    hits.increment();
+                } else {
+                    misses.increment();
+                }
+                return p;
+            }
+        }
+
+        // decompress without holding the lock so other readers are not stuck behind a large blob
+        long start = System.nanoTime();
+        Path staged;
+        try {
+            staged = stage(cold, p);
+        } catch (IOException e) {
+            synchronized (this) {
+                // a concurrent reader may have promoted it and removed the cold copy under us
+                if (hot.containsKey(p)) return p;
+            }
+            throw new UncheckedIOException("Could not promote " + p + " from the cold tier", e);
+        }
+        List<Victim> victims;
+        synchronized (this) {
+            HotEntry entry = hot.get(p);
+            if (entry != null) {
+                entry.touch();
+                deleteQuietly(staged);
+                hits.increment();
+                return p;
+            }
+            install(staged, cold, p);
+            promotionLatency.record(Duration.ofNanos(System.nanoTime() - start));
+            promotions.increment();
+            victims = overBudget(p);
+        }
+        demote(victims, true);
+        return p;
+    }
+
+    /**
+     * Deletes a blob from the hot tier and stops accounting for it
+     */
+    public void delete(Path file) {
+        Path p = file.toAbsolutePath().normalize();
+        synchronized (this) {
+            HotEntry entry = hot.remove(p);
+            if (entry != null) hotBytes.addAndGet(-entry.size);
+        }
+        deleteQuietly(p);
+    }
+
+    /**
+     * Returns true if the blob exists in either tier
+     */
+    public boolean exists(String filePath) {
+        Path p = Paths.get(filePath).toAbsolutePath().normalize();
+        return Files.exists(p) || (p.startsWith(hotDir) && Files.exists(coldPathFor(p)));
+    }
+
+    /**
+     * Moves blobs that have not been read for {@code demote-after} into the cold tier
+     */
+    @Scheduled(fixedDelayString = "${transformer.storage.sweep-interval:PT1H}")
+    public void demoteIdle() {
+        long cutoff = System.currentTimeMillis() - demoteAfter.toMillis();
+        List<Victim> victims = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<Path, HotEntry> e : hot.entrySet()) {
+                // iteration is in access order, so everything after this was read more recently
+                if (e.getValue().lastAccess >= cutoff) break;
+                pick(e.getKey(), e.getValue(), victims);
+            }
+        }
+        demote(victims, false);
+    }
+
+    private void track(Path p, long lastAccess) {
+        long size = size(p);
+        hot.put(p, new HotEntry(size, lastAccess));
+        hotBytes.addAndGet(size);
+    }
+
+    /**
+     * Picks least recently used blobs until the hot tier, less what is already being demoted,
+     * fits the budget. Must be called holding the lock.
+     */
+    private List<Victim> overBudget(Path keep) {
+        List<Victim> victims = new ArrayList<>();
+        long graceCutoff = System.currentTimeMillis() - minResidency.toMillis();
+        for (Map.Entry<Path, HotEntry> e : hot.entrySet()) {
+            if (hotBytes.get() - demotingBytes <= hotBudgetBytes) break;
+            // never evict the blob being admitted or anything a running analysis may still be reading
+            if (e.getKey().equals(keep) || e.getValue().lastAccess > graceCutoff) continue;
+            pick(e.getKey(), e.getValue(), victims);
+        }
+        return victims;
+    }
+
+    private void pick(Path p, HotEntry entry, List<Victim> victims) {
+        if (!demoting.add(p)) return;
+        demotingBytes += entry.size;
+        victims.add(new Victim(p, entry, entry.reads));
+    }
+
+    private void demote(List<Victim> victims, boolean eviction) {
+        for (Victim v : victims) {
+            boolean gone = !Files.exists(v.path());
+            Path staged = gone ? null : compress(v.path());
+            synchronized (this) {
+                demoting.remove(v.path());
+                demotingBytes -= v.entry().size;
+                // read, replaced or deleted while we were compressing: keep it hot
+                if (hot.get(v.path()) != v.entry() || v.entry().reads != v.reads()) {
+                    if (staged != null) deleteQuietly(staged);
+                    continue;
+                }
+                if (!gone && (staged == null || !moveToCold(staged, v.path()))) continue;
+                hot.remove(v.path());
+                hotBytes.addAndGet(-v.entry().size);
+                if (eviction && !gone) evictions.increment();
+            }
+        }
+    }
+
+    private Path compress(Path p) {
+        Path cold = coldPathFor(p);
+        Path tmp = null;
+        try {
+            Files.createDirectories(cold.getParent());
+            tmp = Files.createTempFile(cold.getParent(), cold.getFileName() + ".", ".demote");
+            try (InputStream in = Files.newInputStream(p);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+                in.transferTo(out);
+            }
+            // keep the original mtime so raster sidecars still compare as fresh after a round trip
+            Files.setLastModifiedTime(tmp, Files.getLastModifiedTime(p));
+            return tmp;
+        } catch (IOException e) {
+            log.warn("Could not move {} to the cold tier: {}", p, e.getMessage());
+            if (tmp != null) deleteQuietly(tmp);
+            return null;
+        }
+    }
+
+    private boolean moveToCold(Path staged, Path p) {
+        Path cold = coldPathFor(p);
+        try {
+            long previous = Files.exists(cold) ? size(cold) : -1;
+            Files.move(staged, cold, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (previous >= 0) {
+                coldBytes.addAndGet(-previous);
+            } else {
+                coldFiles.incrementAndGet();
+            }
+            coldBytes.addAndGet(size(cold));
+            Files.delete(p);
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not move {} to the cold tier: {}", p, e.getMessage());
+            deleteQuietly(staged);
+            return false;
+        }
+    }
+
+    private Path stage(Path cold, Path p) throws IOException {
+        Files.createDirectories(p.getParent());
+        FileTime mtime = Files.getLastModifiedTime(cold);
+        Path tmp = Files.createTempFile(p.getParent(), p.getFileName() + ".", ".promote");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(cold));
+             OutputStream out = Files.newOutputStream(tmp)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw e;
+        }
+        // keep the original mtime so raster sidecars still compare as fresh after a round trip
+        Files.setLastModifiedTime(tmp, mtime);
+        return tmp;
+    }
+
+    private void install(Path staged, Path cold, Path p) {
+        try {
+            Files.move(staged, p, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (Files.exists(cold)) {
+                long coldSize = size(cold);
+                Files.delete(cold);
+                coldBytes.addAndGet(-coldSize);
+                coldFiles.decrementAndGet();
+            }
+            track(p, System.currentTimeMillis());
+        } catch (IOException e) {
+            deleteQuietly(staged);
+            throw new UncheckedIOException("Could not promote " + p + " from the cold tier", e);
+        }
+    }
+
+    private static void deleteQuietly(Path p) {
+        try {
+            Files.deleteIfExists(p);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", p, e.getMessage());
+        }
+    }
+
+    private Path coldPathFor(Path hotPath) {
+        Path relative = hotDir.relativize(hotPath);
+        return coldDir.resolve(relative.toString() + COLD_SUFFIX);
+    }
+
+    private synchronized int hotFileCount() {
+        return hot.size();
+    }
+
+    private static long size(Path p) {
+        try {
+            return Files.size(p);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static FileTime lastModified(Path p) {
+        try {
+            return Files.getLastModifiedTime(p);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
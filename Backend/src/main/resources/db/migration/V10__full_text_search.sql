@@ -0,0 +1,14 @@
+-- Full-text search over the crews' free text. The search vectors are generated columns, so every
+-- insert and update through the existing endpoints keeps them current without application code;
+-- the GIN indexes answer @@ matches without reading the text.
+
+ALTER TABLE general_record ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(recommended_action, '')), 'A')
+    || setweight(to_tsvector('english', coalesce(additional_remarks, '')), 'B')
+) STORED;
+CREATE INDEX idx_general_record_search_vector ON general_record USING GIN (search_vector);
+
+ALTER TABLE work_data_sheet ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(work_notes, '')), 'B')
+) STORED;
+CREATE INDEX idx_work_data_sheet_search_vector ON work_data_sheet USING GIN (search_vector);
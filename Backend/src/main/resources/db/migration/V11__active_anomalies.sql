@@ -0,0 +1,19 @@
+-- Reads of active anomalies go through partial indexes that leave soft-deleted rows out, and
+-- soft-deleted rows past their retention are moved to anomalies_archive by AnomalyPurgeService.
+--
+-- deleted becomes NOT NULL so that "deleted = false" (the partial index predicate) and
+-- "deleted IS NOT TRUE" select the same rows.
+
+UPDATE anomalies SET deleted = false WHERE deleted IS NULL;
+ALTER TABLE anomalies ALTER COLUMN deleted SET DEFAULT false;
+ALTER TABLE anomalies ALTER COLUMN deleted SET NOT NULL;
+
+CREATE INDEX idx_anomalies_active_inspection_number ON anomalies (inspection_number, idx) WHERE deleted = false;
+CREATE INDEX idx_anomalies_active_id ON anomalies (id) WHERE deleted = false;
+-- the purge's scan for expired soft-deleted rows
+CREATE INDEX idx_anomalies_deleted_at ON anomalies (deleted_at) WHERE deleted = true;
+
+-- not partitioned and without foreign keys, so archived rows outlive their inspections and partitions
+CREATE TABLE anomalies_archive (LIKE anomalies INCLUDING DEFAULTS);
+ALTER TABLE anomalies_archive ADD COLUMN archived_at TIMESTAMPTZ NOT NULL DEFAULT now();
+ALTER TABLE anomalies_archive ADD CONSTRAINT anomalies_archive_pkey PRIMARY KEY (id, created_at);
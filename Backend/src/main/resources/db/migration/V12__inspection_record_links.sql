@@ -0,0 +1,17 @@
+-- Links the general, maintenance and work records to the inspection they were filled in for, so
+-- GET /api/inspections/{id}/full can gather them. Nullable: existing records stay unlinked.
+
+ALTER TABLE general_record ADD COLUMN inspection_id BIGINT;
+ALTER TABLE general_record
+    ADD CONSTRAINT fk_general_record_inspection FOREIGN KEY (inspection_id) REFERENCES inspections (id);
+CREATE INDEX idx_general_record_inspection_id ON general_record (inspection_id);
+
+ALTER TABLE maintenance_record ADD COLUMN inspection_id BIGINT;
+ALTER TABLE maintenance_record
+    ADD CONSTRAINT fk_maintenance_record_inspection FOREIGN KEY (inspection_id) REFERENCES inspections (id);
+CREATE INDEX idx_maintenance_record_inspection_id ON maintenance_record (inspection_id);
+
+ALTER TABLE work_data_sheet ADD COLUMN inspection_id BIGINT;
+ALTER TABLE work_data_sheet
+    ADD CONSTRAINT fk_work_data_sheet_inspection FOREIGN KEY (inspection_id) REFERENCES inspections (id);
+CREATE INDEX idx_work_data_sheet_inspection_id ON work_data_sheet (inspection_id);
@@ -0,0 +1,41 @@
+-- Change feed for GET /api/sync. Every insert and update of a transformer or inspection stamps
+-- row_version with the writing transaction's id, and deletes leave a tombstone stamped the same
+-- way. Transaction ids only grow, and every transaction still running when a sync reads has an id
+-- at or above that read's snapshot xmin, so syncing again from that xmin cannot miss a late commit.
+
+CREATE FUNCTION sync_stamp_row_version() RETURNS TRIGGER LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.row_version := pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END $$;
+
+CREATE TABLE sync_tombstones (
+    entity VARCHAR(32) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    row_version BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint,
+    deleted_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (entity, entity_id)
+);
+CREATE INDEX idx_sync_tombstones_row_version ON sync_tombstones (row_version, entity, entity_id);
+
+CREATE FUNCTION sync_record_tombstone() RETURNS TRIGGER LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO sync_tombstones (entity, entity_id) VALUES (TG_ARGV[0], OLD.id)
+    ON CONFLICT (entity, entity_id) DO UPDATE SET row_version = EXCLUDED.row_version, deleted_at = EXCLUDED.deleted_at;
+    RETURN OLD;
+END $$;
+
+-- existing rows share this migration's version, so the first sync of any client returns them all
+ALTER TABLE transformers ADD COLUMN row_version BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint;
+CREATE INDEX idx_transformers_row_version ON transformers (row_version, id);
+CREATE TRIGGER trg_transformers_row_version BEFORE INSERT OR UPDATE ON transformers
+    FOR EACH ROW EXECUTE FUNCTION sync_stamp_row_version();
+CREATE TRIGGER trg_transformers_tombstone AFTER DELETE ON transformers
+    FOR EACH ROW EXECUTE FUNCTION sync_record_tombstone('transformer');
+
+ALTER TABLE inspections ADD COLUMN row_version BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint;
+CREATE INDEX idx_inspections_row_version ON inspections (row_version, id);
+CREATE TRIGGER trg_inspections_row_version BEFORE INSERT OR UPDATE ON inspections
+    FOR EACH ROW EXECUTE FUNCTION sync_stamp_row_version();
+CREATE TRIGGER trg_inspections_tombstone AFTER DELETE ON inspections
+    FOR EACH ROW EXECUTE FUNCTION sync_record_tombstone('inspection');
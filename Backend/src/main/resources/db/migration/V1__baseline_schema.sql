@@ -0,0 +1,162 @@
+-- Baseline schema as previously created by hibernate.ddl-auto=update.
+-- Everything is IF NOT EXISTS so this also runs against databases created before migrations
+-- were introduced (spring.flyway.baseline-version=0).
+
+CREATE TABLE IF NOT EXISTS transformers (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    region VARCHAR(255),
+    transformer_no VARCHAR(255),
+    pole_no VARCHAR(255),
+    type VARCHAR(255),
+    location_details VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS inspections (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    branch VARCHAR(255),
+    transformer_no VARCHAR(255),
+    date VARCHAR(255),
+    time VARCHAR(255),
+    status VARCHAR(255),
+    maintainance_date VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS inspection_images (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    file_name VARCHAR(255),
+    file_path VARCHAR(255),
+    content_type VARCHAR(255),
+    width INTEGER,
+    height INTEGER,
+    inspection_id BIGINT NOT NULL REFERENCES inspections (id)
+);
+
+CREATE TABLE IF NOT EXISTS analysis_results (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    inspection_id VARCHAR(255),
+    result_json TEXT,
+    created_at TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE TABLE IF NOT EXISTS bounding_boxes (
+    id BIGINT PRIMARY KEY,
+    inspection_id VARCHAR(255),
+    box_index_id VARCHAR(255),
+    x INTEGER,
+    y INTEGER,
+    w INTEGER,
+    h INTEGER,
+    area_frac FLOAT(53),
+    aspect FLOAT(53),
+    overlap_center_frac FLOAT(53),
+    label VARCHAR(255),
+    box_fault VARCHAR(255),
+    created_at TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE TABLE IF NOT EXISTS anomalies (
+    id BIGINT PRIMARY KEY,
+    inspection_number VARCHAR(255) NOT NULL,
+    idx INTEGER NOT NULL,
+    label VARCHAR(255),
+    coords JSON,
+    confidence REAL,
+    severity VARCHAR(255),
+    area_frac REAL,
+    is_manual BOOLEAN,
+    created_by VARCHAR(255),
+    deleted BOOLEAN,
+    deleted_at TIMESTAMP(6),
+    deleted_by VARCHAR(255),
+    created_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS general_record (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    date DATE,
+    time TIME(6),
+    inspector_name VARCHAR(255),
+    transformer_status VARCHAR(255),
+    recommended_action VARCHAR(255),
+    additional_remarks VARCHAR(255),
+    voltager REAL,
+    voltagey REAL,
+    voltageb REAL,
+    currentr REAL,
+    currenty REAL,
+    currentb REAL,
+    voltager2 REAL,
+    voltagey2 REAL,
+    voltageb2 REAL,
+    currentr2 REAL,
+    currenty2 REAL,
+    currentb2 REAL
+);
+
+CREATE TABLE IF NOT EXISTS maintenance_record (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    start_time TIME(6),
+    completion_time TIME(6),
+    supervised_by VARCHAR(255),
+    techi VARCHAR(255),
+    techii VARCHAR(255),
+    techiii VARCHAR(255),
+    helpers VARCHAR(255),
+    inspected_by VARCHAR(255),
+    inspected_date DATE,
+    rectified_by VARCHAR(255),
+    rectified_date DATE,
+    re_inspected_by VARCHAR(255),
+    re_inspected_date DATE,
+    css1 VARCHAR(255),
+    css1date DATE,
+    all_spots_correct BOOLEAN,
+    css2 VARCHAR(255),
+    css2date DATE
+);
+
+CREATE TABLE IF NOT EXISTS work_data_sheet (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    gang_leader VARCHAR(255),
+    work_date DATE,
+    job_started_time TIME(6),
+    serial_no VARCHAR(255),
+    kva VARCHAR(255),
+    make VARCHAR(255),
+    tap_position VARCHAR(255),
+    tx_ct_ration VARCHAR(255),
+    manufacture_year VARCHAR(255),
+    earth_resistance REAL,
+    neutral REAL,
+    surge_or_body VARCHAR(255),
+    fdsf1 BOOLEAN,
+    fdsf1a REAL,
+    fdsf2 BOOLEAN,
+    fdsf2a REAL,
+    fdsf3 BOOLEAN,
+    fdsf3a REAL,
+    fdsf4 BOOLEAN,
+    fdsf4a REAL,
+    fdsf5 BOOLEAN,
+    fdsf5a REAL,
+    job_completed_time TIME(6),
+    work_notes VARCHAR(255)
+);
+
+-- columns added after the first deployments
+ALTER TABLE inspection_images ADD COLUMN IF NOT EXISTS width INTEGER;
+ALTER TABLE inspection_images ADD COLUMN IF NOT EXISTS height INTEGER;
+
+-- Pooled id sequences (allocationSize = 100). A value v hands out ids v-99..v, so start past
+-- any id already issued by the old identity columns.
+CREATE SEQUENCE IF NOT EXISTS anomalies_seq START WITH 1 INCREMENT BY 100;
+CREATE SEQUENCE IF NOT EXISTS bounding_boxes_seq START WITH 1 INCREMENT BY 100;
+
+SELECT setval('anomalies_seq',
+              GREATEST((SELECT COALESCE(MAX(id), 0) FROM anomalies) + 100,
+                       (SELECT last_value FROM anomalies_seq) + 100),
+              false);
+SELECT setval('bounding_boxes_seq',
+              GREATEST((SELECT COALESCE(MAX(id), 0) FROM bounding_boxes) + 100,
+                       (SELECT last_value FROM bounding_boxes_seq) + 100),
+              false);
@@ -0,0 +1,24 @@
+-- Indexes for the repository query paths
+
+-- AnomalyRepository.findByInspectionNumberAndIdx / findByInspectionNumber
+CREATE INDEX IF NOT EXISTS idx_anomalies_inspection_number_idx ON anomalies (inspection_number, idx);
+
+-- boxes of one analysis result
+CREATE INDEX IF NOT EXISTS idx_bounding_boxes_inspection_id ON bounding_boxes (inspection_id, id);
+
+-- images of one inspection; covers the metadata columns image listings read
+CREATE INDEX IF NOT EXISTS idx_inspection_images_inspection_id
+    ON inspection_images (inspection_id, id) INCLUDE (file_name, content_type, width, height);
+
+-- keyset-paginated lists: (filter, id) so "filter = ? AND id > ? ORDER BY id" is one range scan
+CREATE INDEX IF NOT EXISTS idx_transformers_region_id ON transformers (region, id);
+CREATE INDEX IF NOT EXISTS idx_transformers_type_id ON transformers (type, id);
+CREATE INDEX IF NOT EXISTS idx_inspections_branch_id ON inspections (branch, id);
+CREATE INDEX IF NOT EXISTS idx_inspections_status_id ON inspections (status, id);
+
+-- transformerNo prefix filters (LIKE 'abc%') need the pattern operator class under non-C collations;
+-- it also serves equality lookups, so it replaces the plain indexes created by ddl-auto
+DROP INDEX IF EXISTS idx_transformers_transformer_no;
+DROP INDEX IF EXISTS idx_inspections_transformer_no;
+CREATE INDEX IF NOT EXISTS idx_transformers_transformer_no_prefix ON transformers (transformer_no varchar_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_inspections_transformer_no_prefix ON inspections (transformer_no varchar_pattern_ops);
@@ -0,0 +1,39 @@
+-- Real foreign keys next to the legacy string references (transformer_no, inspection_id,
+-- inspection_number), which the API keeps returning.
+
+ALTER TABLE inspections ADD COLUMN IF NOT EXISTS transformer_id BIGINT;
+ALTER TABLE bounding_boxes ADD COLUMN IF NOT EXISTS inspection_ref_id BIGINT;
+ALTER TABLE anomalies ADD COLUMN IF NOT EXISTS inspection_ref_id BIGINT;
+
+-- backfill: first transformer with the same number; inspection ids stored as digit strings
+UPDATE inspections i
+   SET transformer_id = t.id
+  FROM (SELECT DISTINCT ON (transformer_no) id, transformer_no
+          FROM transformers
+         ORDER BY transformer_no, id) t
+ WHERE i.transformer_id IS NULL
+   AND i.transformer_no = t.transformer_no;
+
+UPDATE bounding_boxes b
+   SET inspection_ref_id = i.id
+  FROM inspections i
+ WHERE b.inspection_ref_id IS NULL
+   AND i.id = CASE WHEN b.inspection_id ~ '^[0-9]{1,18}$' THEN b.inspection_id::BIGINT END;
+
+UPDATE anomalies a
+   SET inspection_ref_id = i.id
+  FROM inspections i
+ WHERE a.inspection_ref_id IS NULL
+   AND i.id = CASE WHEN a.inspection_number ~ '^[0-9]{1,18}$' THEN a.inspection_number::BIGINT END;
+
+ALTER TABLE inspections
+    ADD CONSTRAINT fk_inspections_transformer FOREIGN KEY (transformer_id) REFERENCES transformers (id);
+ALTER TABLE bounding_boxes
+    ADD CONSTRAINT fk_bounding_boxes_inspection FOREIGN KEY (inspection_ref_id) REFERENCES inspections (id);
+ALTER TABLE anomalies
+    ADD CONSTRAINT fk_anomalies_inspection FOREIGN KEY (inspection_ref_id) REFERENCES inspections (id);
+
+-- Postgres does not index the referencing side of a foreign key
+CREATE INDEX IF NOT EXISTS idx_inspections_transformer_id ON inspections (transformer_id, id);
+CREATE INDEX IF NOT EXISTS idx_bounding_boxes_inspection_ref_id ON bounding_boxes (inspection_ref_id);
+CREATE INDEX IF NOT EXISTS idx_anomalies_inspection_ref_id ON anomalies (inspection_ref_id);
@@ -0,0 +1,42 @@
+-- inspections.date / time / maintainance_date were free-text varchars. Convert them in place to
+-- DATE / TIME; values that do not parse are kept in inspection_temporal_rejects before being nulled.
+
+CREATE FUNCTION pg_temp.try_date(v TEXT) RETURNS DATE LANGUAGE plpgsql IMMUTABLE AS $$
+BEGIN
+    RETURN NULLIF(btrim(v), '')::DATE;
+EXCEPTION WHEN others THEN
+    RETURN NULL;
+END $$;
+
+CREATE FUNCTION pg_temp.try_time(v TEXT) RETURNS TIME LANGUAGE plpgsql IMMUTABLE AS $$
+BEGIN
+    RETURN NULLIF(btrim(v), '')::TIME;
+EXCEPTION WHEN others THEN
+    RETURN NULL;
+END $$;
+
+CREATE TABLE IF NOT EXISTS inspection_temporal_rejects (
+    inspection_id BIGINT NOT NULL,
+    column_name VARCHAR(64) NOT NULL,
+    value VARCHAR(255)
+);
+
+INSERT INTO inspection_temporal_rejects (inspection_id, column_name, value)
+SELECT id, 'date', date FROM inspections
+ WHERE btrim(date) <> '' AND pg_temp.try_date(date) IS NULL
+UNION ALL
+SELECT id, 'time', time FROM inspections
+ WHERE btrim(time) <> '' AND pg_temp.try_time(time) IS NULL
+UNION ALL
+SELECT id, 'maintainance_date', maintainance_date FROM inspections
+ WHERE btrim(maintainance_date) <> '' AND pg_temp.try_date(maintainance_date) IS NULL;
+
+ALTER TABLE inspections
+    ALTER COLUMN date TYPE DATE USING pg_temp.try_date(date),
+    ALTER COLUMN time TYPE TIME(6) USING pg_temp.try_time(time),
+    ALTER COLUMN maintainance_date TYPE DATE USING pg_temp.try_date(maintainance_date);
+
+-- date-range listings: alone, and narrowed by branch
+CREATE INDEX IF NOT EXISTS idx_inspections_date ON inspections (date);
+CREATE INDEX IF NOT EXISTS idx_inspections_branch_date ON inspections (branch, date);
+CREATE INDEX IF NOT EXISTS idx_inspections_maintainance_date ON inspections (maintainance_date);
@@ -0,0 +1,38 @@
+-- anomalies.coords and analysis_results.result_json become jsonb so they can be indexed and queried
+
+-- coords was a json column, so every stored value already parses
+ALTER TABLE anomalies ALTER COLUMN coords TYPE JSONB USING coords::JSONB;
+
+-- result_json was free text; anything that is not JSON is kept as a JSON string
+CREATE FUNCTION pg_temp.to_jsonb_lenient(v TEXT) RETURNS JSONB LANGUAGE plpgsql IMMUTABLE AS $$
+BEGIN
+    RETURN v::JSONB;
+EXCEPTION WHEN others THEN
+    RETURN to_jsonb(v);
+END $$;
+
+ALTER TABLE analysis_results ALTER COLUMN result_json TYPE JSONB USING pg_temp.to_jsonb_lenient(result_json);
+
+-- Bounding box of an anomaly's coords, [x, y, w, h] or {"x", "y", "w", "h"}; NULL unless all four
+-- are numbers, so odd values never make an insert fail. IMMUTABLE so it can back an expression index.
+CREATE OR REPLACE FUNCTION anomaly_box(coords JSONB) RETURNS BOX
+LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT CASE WHEN jsonb_typeof(x) = 'number' AND jsonb_typeof(y) = 'number'
+                 AND jsonb_typeof(w) = 'number' AND jsonb_typeof(h) = 'number'
+                THEN box(point(x::FLOAT8, y::FLOAT8), point(x::FLOAT8 + w::FLOAT8, y::FLOAT8 + h::FLOAT8))
+           END
+      FROM (SELECT COALESCE(coords -> 0, coords -> 'x') AS x,
+                   COALESCE(coords -> 1, coords -> 'y') AS y,
+                   COALESCE(coords -> 2, coords -> 'w') AS w,
+                   COALESCE(coords -> 3, coords -> 'h') AS h) c
+$$;
+
+-- coordinate-window queries (anomaly_box(coords) && box(...)); GIN cannot answer range overlap
+CREATE INDEX IF NOT EXISTS idx_anomalies_coords_box ON anomalies USING GIST (anomaly_box(coords));
+-- attribute filters of the search API
+CREATE INDEX IF NOT EXISTS idx_anomalies_label_severity ON anomalies (label, severity);
+CREATE INDEX IF NOT EXISTS idx_anomalies_area_frac ON anomalies (area_frac);
+
+-- containment queries on raw results (result_json @> '{"boxInfo": [{"boxFault": "..."}]}')
+CREATE INDEX IF NOT EXISTS idx_analysis_results_result_json ON analysis_results USING GIN (result_json jsonb_path_ops);
+CREATE INDEX IF NOT EXISTS idx_analysis_results_inspection_id ON analysis_results (inspection_id, id);
@@ -0,0 +1,78 @@
+-- Monthly range partitioning of anomalies and bounding_boxes on created_at.
+--
+-- Each table is rebuilt as a partitioned table: the existing one is renamed, a partitioned copy is
+-- created with one partition per month from the oldest row to three months ahead, the rows are
+-- copied over, and the indexes and constraints are recreated on the parent (and so on every
+-- partition). Later months are added by PartitionMaintenanceService.
+--
+-- The primary key has to include the partition key, so it becomes (id, created_at); ids still come
+-- from the pooled sequences and stay unique on their own.
+
+CREATE FUNCTION pg_temp.create_monthly_partitions(parent TEXT, from_month TIMESTAMP, to_month TIMESTAMP, tz TEXT)
+RETURNS VOID LANGUAGE plpgsql AS $$
+DECLARE
+    m TIMESTAMP;
+BEGIN
+    FOR m IN SELECT generate_series(date_trunc('month', from_month), date_trunc('month', to_month), INTERVAL '1 month') LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       parent || '_p' || to_char(m, 'YYYY_MM'), parent,
+                       to_char(m, 'YYYY-MM-DD HH24:MI:SS') || tz,
+                       to_char(m + INTERVAL '1 month', 'YYYY-MM-DD HH24:MI:SS') || tz);
+    END LOOP;
+END $$;
+
+-- ---------------------------------------------------------------- anomalies (timestamp, local time)
+
+UPDATE anomalies SET created_at = COALESCE(deleted_at, now()) WHERE created_at IS NULL;
+
+ALTER TABLE anomalies RENAME TO anomalies_unpartitioned;
+
+CREATE TABLE anomalies (LIKE anomalies_unpartitioned INCLUDING DEFAULTS)
+    PARTITION BY RANGE (created_at);
+ALTER TABLE anomalies ALTER COLUMN created_at SET NOT NULL;
+ALTER TABLE anomalies ALTER COLUMN created_at SET DEFAULT LOCALTIMESTAMP;
+
+SELECT pg_temp.create_monthly_partitions('anomalies',
+       COALESCE((SELECT MIN(created_at) FROM anomalies_unpartitioned), LOCALTIMESTAMP),
+       LOCALTIMESTAMP + INTERVAL '3 months', '');
+
+INSERT INTO anomalies SELECT * FROM anomalies_unpartitioned;
+DROP TABLE anomalies_unpartitioned;
+
+ALTER TABLE anomalies ADD CONSTRAINT anomalies_pkey PRIMARY KEY (id, created_at);
+ALTER TABLE anomalies
+    ADD CONSTRAINT fk_anomalies_inspection FOREIGN KEY (inspection_ref_id) REFERENCES inspections (id);
+CREATE INDEX idx_anomalies_inspection_number_idx ON anomalies (inspection_number, idx);
+CREATE INDEX idx_anomalies_inspection_ref_id ON anomalies (inspection_ref_id);
+CREATE INDEX idx_anomalies_coords_box ON anomalies USING GIST (anomaly_box(coords));
+CREATE INDEX idx_anomalies_label_severity ON anomalies (label, severity);
+CREATE INDEX idx_anomalies_area_frac ON anomalies (area_frac);
+CREATE INDEX idx_anomalies_created_at ON anomalies (created_at);
+
+-- ------------------------------------------------------------ bounding_boxes (timestamptz, UTC months)
+
+UPDATE bounding_boxes SET created_at = now() WHERE created_at IS NULL;
+
+ALTER TABLE bounding_boxes RENAME TO bounding_boxes_unpartitioned;
+
+CREATE TABLE bounding_boxes (LIKE bounding_boxes_unpartitioned INCLUDING DEFAULTS)
+    PARTITION BY RANGE (created_at);
+ALTER TABLE bounding_boxes ALTER COLUMN created_at SET NOT NULL;
+ALTER TABLE bounding_boxes ALTER COLUMN created_at SET DEFAULT now();
+
+SELECT pg_temp.create_monthly_partitions('bounding_boxes',
+       COALESCE((SELECT MIN(created_at) AT TIME ZONE 'UTC' FROM bounding_boxes_unpartitioned), now() AT TIME ZONE 'UTC'),
+       (now() AT TIME ZONE 'UTC') + INTERVAL '3 months', '+00');
+
+INSERT INTO bounding_boxes SELECT * FROM bounding_boxes_unpartitioned;
+DROP TABLE bounding_boxes_unpartitioned;
+
+ALTER TABLE bounding_boxes ADD CONSTRAINT bounding_boxes_pkey PRIMARY KEY (id, created_at);
+ALTER TABLE bounding_boxes
+    ADD CONSTRAINT fk_bounding_boxes_inspection FOREIGN KEY (inspection_ref_id) REFERENCES inspections (id);
+CREATE INDEX idx_bounding_boxes_inspection_id ON bounding_boxes (inspection_id, id);
+CREATE INDEX idx_bounding_boxes_inspection_ref_id ON bounding_boxes (inspection_ref_id);
+CREATE INDEX idx_bounding_boxes_created_at ON bounding_boxes (created_at);
+
+-- detached partitions are moved here by the retention task
+CREATE SCHEMA IF NOT EXISTS archive;
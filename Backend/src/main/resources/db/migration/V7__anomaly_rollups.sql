@@ -0,0 +1,37 @@
+-- Per-month anomaly counts by region, transformer and label, kept up to date by the writers
+-- (AnomalyRollupService) so fleet analytics never scan the raw tables.
+--
+-- source is 'anomaly' for rows in anomalies (soft-deleted ones excluded) and 'detection' for
+-- detector boxes in bounding_boxes. Rows that cannot be tied to a transformer are counted under
+-- an empty region and transformer_no. month is the first day of the row's created_at month (UTC for
+-- bounding_boxes), so it never changes after the row is written.
+
+CREATE TABLE anomaly_rollups (
+    source VARCHAR(16) NOT NULL,
+    month DATE NOT NULL,
+    region VARCHAR(255) NOT NULL DEFAULT '',
+    transformer_no VARCHAR(255) NOT NULL DEFAULT '',
+    label VARCHAR(255) NOT NULL DEFAULT '',
+    row_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT anomaly_rollups_pkey PRIMARY KEY (source, month, region, transformer_no, label)
+);
+
+CREATE INDEX idx_anomaly_rollups_region_month ON anomaly_rollups (region, month);
+CREATE INDEX idx_anomaly_rollups_transformer_month ON anomaly_rollups (transformer_no, month);
+
+INSERT INTO anomaly_rollups (source, month, region, transformer_no, label, row_count)
+SELECT 'anomaly', date_trunc('month', a.created_at)::date, COALESCE(t.region, ''), COALESCE(t.transformer_no, ''),
+       lower(btrim(COALESCE(a.label, ''))), count(*)
+FROM anomalies a
+LEFT JOIN inspections i ON i.id = a.inspection_ref_id
+LEFT JOIN transformers t ON t.id = i.transformer_id
+WHERE a.deleted IS NOT TRUE
+GROUP BY 2, 3, 4, 5;
+
+INSERT INTO anomaly_rollups (source, month, region, transformer_no, label, row_count)
+SELECT 'detection', date_trunc('month', b.created_at AT TIME ZONE 'UTC')::date, COALESCE(t.region, ''),
+       COALESCE(t.transformer_no, ''), lower(btrim(COALESCE(NULLIF(btrim(b.box_fault), ''), b.label, ''))), count(*)
+FROM bounding_boxes b
+LEFT JOIN inspections i ON i.id = b.inspection_ref_id
+LEFT JOIN transformers t ON t.id = i.transformer_id
+GROUP BY 2, 3, 4, 5;
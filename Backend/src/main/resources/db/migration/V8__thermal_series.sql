@@ -0,0 +1,15 @@
+-- Thermal metrics (prob, histDistance, dv95, warmFraction) per transformer over time, one row per
+-- transformer and calendar year. data is a ThermalSeries chunk: delta-encoded timestamps and
+-- inspection ids followed by one float32 column per metric. first_at/last_at bound the points so
+-- range reads only decode the chunks they need.
+
+CREATE TABLE thermal_series_chunks (
+    transformer_id BIGINT NOT NULL,
+    chunk_year INT NOT NULL,
+    point_count INT NOT NULL,
+    first_at TIMESTAMP NOT NULL,
+    last_at TIMESTAMP NOT NULL,
+    data BYTEA NOT NULL,
+    CONSTRAINT thermal_series_chunks_pkey PRIMARY KEY (transformer_id, chunk_year),
+    CONSTRAINT fk_thermal_series_transformer FOREIGN KEY (transformer_id) REFERENCES transformers (id)
+);
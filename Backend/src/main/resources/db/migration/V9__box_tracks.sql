@@ -0,0 +1,31 @@
+-- Hotspot tracks: a box recurring across inspections of one transformer. Each bounding box points at
+-- the track it continues; the track keeps its first and latest geometry so growth can be reported
+-- without reading the boxes.
+
+CREATE TABLE box_tracks (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    transformer_id BIGINT NOT NULL,
+    label VARCHAR(255),
+    box_count INT NOT NULL,
+    first_box_id BIGINT NOT NULL,
+    last_box_id BIGINT NOT NULL,
+    last_inspection_id BIGINT,
+    x INT NOT NULL,
+    y INT NOT NULL,
+    w INT NOT NULL,
+    h INT NOT NULL,
+    first_area INT NOT NULL,
+    last_area INT NOT NULL,
+    first_seen_at TIMESTAMP(6),
+    last_seen_at TIMESTAMP(6),
+    CONSTRAINT fk_box_tracks_transformer FOREIGN KEY (transformer_id) REFERENCES transformers (id)
+);
+
+CREATE INDEX idx_box_tracks_transformer_id ON box_tracks (transformer_id, id);
+
+-- nullable, so existing rows and the write-behind COPY column list are unaffected;
+-- on the partitioned table this reaches every partition
+ALTER TABLE bounding_boxes ADD COLUMN track_id BIGINT;
+ALTER TABLE bounding_boxes
+    ADD CONSTRAINT fk_bounding_boxes_track FOREIGN KEY (track_id) REFERENCES box_tracks (id);
+CREATE INDEX idx_bounding_boxes_track_id ON bounding_boxes (track_id);
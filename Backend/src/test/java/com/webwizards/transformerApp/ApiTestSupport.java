@@ -0,0 +1,113 @@
+package com.webwizards.transformerApp;
+
+import java.time.LocalDate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.webwizards.transformerApp.model.Anomaly;
+import com.webwizards.transformerApp.model.GeneralRecord;
+import com.webwizards.transformerApp.model.Inspection;
+import com.webwizards.transformerApp.model.InspectionImage;
+import com.webwizards.transformerApp.model.Transformer;
+import com.webwizards.transformerApp.repository.AnomalyRepository;
+import com.webwizards.transformerApp.repository.GeneralRecordRepository;
+import com.webwizards.transformerApp.repository.InspectionImageRepository;
+import com.webwizards.transformerApp.repository.InspectionRepository;
+import com.webwizards.transformerApp.repository.TransformerRepository;
+import com.webwizards.transformerApp.service.AnomalyRollupService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Runs the application against an in-memory H2 database in PostgreSQL mode and seeds the same
+ * fleet before every test: three transformers with two inspections each, four images and four
+ * anomalies per inspection, and five general records. Subclasses share one application context.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:querycount;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.flyway.enabled=false",
+        "transformer.write-behind.enabled=false",
+        "transformer.write-behind.journal-dir=${java.io.tmpdir}/transformer-test/journal",
+        "transformer.storage.hot-dir=${java.io.tmpdir}/transformer-test/uploads",
+        "transformer.storage.cold-dir=${java.io.tmpdir}/transformer-test/archive"
+})
+@AutoConfigureMockMvc
+public abstract class ApiTestSupport {
+
+    @Autowired protected MockMvc mvc;
+    @Autowired protected EntityManagerFactory entityManagerFactory;
+    @Autowired protected TransformerRepository transformerRepo;
+    @Autowired protected InspectionRepository inspectionRepo;
+    @Autowired protected InspectionImageRepository imageRepo;
+    @Autowired protected AnomalyRepository anomalyRepo;
+    @Autowired protected GeneralRecordRepository generalRecordRepo;
+    // anomaly_rollups is PostgreSQL-only (ON CONFLICT DO UPDATE); tests that write anomalies stub adjust
+    @MockitoSpyBean protected AnomalyRollupService rollups;
+
+    /** Statement and entity counts since the seed finished */
+    protected Statistics statistics;
+    /** The last seeded inspection, which belongs to transformer AZ-2 */
+    protected Long inspectionId;
+
+    @BeforeEach
+    void seed() {
+        anomalyRepo.deleteAll();
+        imageRepo.deleteAll();
+        inspectionRepo.deleteAll();
+        transformerRepo.deleteAll();
+
+        for (int t = 0; t < 3; t++) {
+            Transformer transformer = new Transformer();
+            transformer.setTransformerNo("AZ-" + t);
+            transformer.setRegion("Nugegoda");
+            transformer = transformerRepo.save(transformer);
+            for (int i = 0; i < 2; i++) {
+                Inspection inspection = new Inspection();
+                inspection.setBranch("Nugegoda");
+                inspection.setTransformerNo(transformer.getTransformerNo());
+                inspection.setTransformerId(transformer.getId());
+                inspection.setDate(LocalDate.of(2025, 1, 1).plusDays(t * 10L + i));
+                inspection = inspectionRepo.save(inspection);
+                inspectionId = inspection.getId();
+                for (int n = 0; n < 4; n++) {
+                    InspectionImage image = new InspectionImage();
+                    image.setFileName("img" + n + ".jpg");
+                    image.setFilePath("/tmp/img" + n + ".jpg");
+                    image.setContentType("image/jpeg");
+                    image.setInspection(inspection);
+                    imageRepo.save(image);
+
+                    Anomaly anomaly = new Anomaly();
+                    anomaly.setInspectionNumber(String.valueOf(inspection.getId()));
+                    anomaly.setInspectionRefId(inspection.getId());
+                    anomaly.setIdx(n);
+                    anomalyRepo.save(anomaly);
+                }
+            }
+        }
+
+        generalRecordRepo.deleteAll();
+        for (int r = 0; r < 5; r++) {
+            GeneralRecord record = new GeneralRecord();
+            record.setInspectorName("A-11" + r);
+            record.setVoltageR(230f);
+            generalRecordRepo.save(record);
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+}
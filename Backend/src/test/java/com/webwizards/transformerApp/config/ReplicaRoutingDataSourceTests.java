@@ -0,0 +1,86 @@
+package com.webwizards.transformerApp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Routing between two embedded H2 databases, each of which knows its own name.
+ */
+class ReplicaRoutingDataSourceTests {
+
+    private DataSource primary;
+    private DataSource replica;
+
+    @BeforeEach
+    void createDatabases() {
+        primary = database("routing_primary");
+        replica = database("routing_replica");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        DataSource routed = routed(List.of(replica), "");
+
+        assertThat(node(routed, true)).isEqualTo("routing_replica");
+        assertThat(node(routed, false)).isEqualTo("routing_primary");
+        assertThat(new JdbcTemplate(routed).queryForObject("SELECT name FROM node", String.class))
+                .isEqualTo("routing_primary");
+    }
+
+    @Test
+    void staleReplicaIsSkipped() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofSeconds(5),
+                "SELECT 30", new SimpleMeterRegistry());
+        routing.checkReplicas();
+
+        assertThat(node(new LazyConnectionDataSourceProxy(routing), true)).isEqualTo("routing_primary");
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() {
+        DataSource down = new DriverManagerDataSource("jdbc:h2:mem:routing_missing;IFEXISTS=TRUE", "sa", "");
+        DataSource routed = routed(List.of(down, replica), "");
+
+        // whichever replica is tried first, every read is answered
+        for (int i = 0; i < 4; i++) {
+            assertThat(node(routed, true)).isIn("routing_primary", "routing_replica");
+        }
+        // once the dead replica is marked down, reads settle on the live one
+        assertThat(node(routed, true)).isEqualTo("routing_replica");
+        assertThat(node(routed, true)).isEqualTo("routing_replica");
+    }
+
+    private DataSource routed(List<DataSource> replicas, String lagQuery) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicas, Duration.ofSeconds(5),
+                lagQuery, new SimpleMeterRegistry()));
+    }
+
+    private static String node(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        tx.setReadOnly(readOnly);
+        return tx.execute(status -> new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static DataSource database(String name) {
+        DataSource ds = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(64))");
+        jdbc.update("DELETE FROM node");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return ds;
+    }
+}
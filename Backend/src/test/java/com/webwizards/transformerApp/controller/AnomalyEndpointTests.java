@@ -0,0 +1,59 @@
+package com.webwizards.transformerApp.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doNothing;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.AopTestUtils;
+
+import com.webwizards.transformerApp.ApiTestSupport;
+import com.webwizards.transformerApp.model.Anomaly;
+import com.webwizards.transformerApp.service.AnomalyRollupService;
+
+/**
+ * Reading and soft-deleting the anomalies of an inspection.
+ */
+class AnomalyEndpointTests extends ApiTestSupport {
+
+    @Test
+    void anomaliesOfAnInspectionLeaveOutSoftDeletedRowsUnlessAsked() throws Exception {
+        Anomaly deleted = anomalyRepo.findByInspectionNumberAndIdx(String.valueOf(inspectionId), 2).get(0);
+        deleted.setDeleted(true);
+        anomalyRepo.save(deleted);
+
+        mvc.perform(get("/api/anomalies/{n}", inspectionId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[2].idx").value(3));
+        mvc.perform(get("/api/anomalies/{n}", inspectionId).param("includeDeleted", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4));
+    }
+
+    @Test
+    void softDeletingKeepsTheFirstDeleter() throws Exception {
+        AnomalyRollupService spy = AopTestUtils.getUltimateTargetObject(rollups);
+        doNothing().when(spy).adjust(anyString(), anyCollection(), any(), anyInt());
+        String first = "{\"inspection_number\": \"" + inspectionId + "\", \"index\": 1, \"deletedBy\": \"A-110\"}";
+        String second = "{\"inspection_number\": \"" + inspectionId + "\", \"index\": 1, \"deletedBy\": \"A-111\"}";
+
+        mvc.perform(patch("/api/anomalies/delete").contentType(MediaType.APPLICATION_JSON).content(first))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+        mvc.perform(patch("/api/anomalies/delete").contentType(MediaType.APPLICATION_JSON).content(second))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(0));
+
+        mvc.perform(get("/api/anomalies/{n}", inspectionId).param("includeDeleted", "true"))
+                .andExpect(jsonPath("$[?(@.idx == 1)].deleted").value(true))
+                .andExpect(jsonPath("$[?(@.idx == 1)].deletedBy").value("A-110"));
+    }
+}
@@ -0,0 +1,26 @@
+package com.webwizards.transformerApp.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+
+import com.webwizards.transformerApp.ApiTestSupport;
+
+/**
+ * GET /api/transformers/{id}/boxes request handling; the R-tree search itself is covered by
+ * BoxIndexServiceTests and BoxRTreeTests.
+ */
+class BoxRegionEndpointTests extends ApiTestSupport {
+
+    @Test
+    void negativeBoxRegionIsABadRequest() throws Exception {
+        mvc.perform(get("/api/transformers/{id}/boxes", 1).param("x", "0").param("y", "0").param("w", "-1").param("h", "5"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("w and h cannot be negative"));
+        mvc.perform(get("/api/transformers/{id}/boxes", 1).param("x", "0").param("y", "0").param("w", "5").param("h", "-1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("w and h cannot be negative"));
+    }
+}
@@ -0,0 +1,69 @@
+package com.webwizards.transformerApp.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doNothing;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.AopTestUtils;
+
+import com.webwizards.transformerApp.ApiTestSupport;
+import com.webwizards.transformerApp.service.AnomalyRollupService;
+import com.webwizards.transformerApp.service.DashboardStatsService;
+
+/**
+ * The live anomaly counters behind GET /api/stats as anomalies are deleted.
+ */
+class DashboardStatsEndpointTests extends ApiTestSupport {
+
+    @Autowired DashboardStatsService dashboardStats;
+
+    private String body;
+
+    @BeforeEach
+    void reconcile() throws Exception {
+        AnomalyRollupService spy = AopTestUtils.getUltimateTargetObject(rollups);
+        doNothing().when(spy).adjust(anyString(), anyCollection(), any(), anyInt());
+        dashboardStats.reconcile();
+        mvc.perform(get("/api/stats"))
+                .andExpect(jsonPath("$.anomalies.total").value(24));
+        body = "{\"inspection_number\": \"" + inspectionId + "\", \"index\": 1, \"deletedBy\": \"A-110\"}";
+    }
+
+    @Test
+    void softDeletingAnAnomalyTakesItOutOfTheDashboardCount() throws Exception {
+        mvc.perform(patch("/api/anomalies/delete").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+        mvc.perform(get("/api/stats"))
+                .andExpect(jsonPath("$.anomalies.total").value(23));
+
+        // deleting it again finds no active row and counts nothing twice
+        mvc.perform(patch("/api/anomalies/delete").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(0));
+        mvc.perform(get("/api/stats"))
+                .andExpect(jsonPath("$.anomalies.total").value(23));
+    }
+
+    @Test
+    void hardDeletingASoftDeletedAnomalyDoesNotCountItTwice() throws Exception {
+        mvc.perform(patch("/api/anomalies/delete").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+        mvc.perform(delete("/api/anomalies/delete").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1));
+        mvc.perform(get("/api/stats"))
+                .andExpect(jsonPath("$.anomalies.total").value(23));
+    }
+}
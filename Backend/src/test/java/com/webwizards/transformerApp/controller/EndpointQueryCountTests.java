@@ -0,0 +1,94 @@
+package com.webwizards.transformerApp.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.webwizards.transformerApp.ApiTestSupport;
+import com.webwizards.transformerApp.model.GeneralRecord;
+
+/**
+ * Counts the SQL statements each read endpoint issues, so a lazy relation touched during
+ * serialization (an N+1) fails the build.
+ */
+class EndpointQueryCountTests extends ApiTestSupport {
+
+    @Test
+    void listingInspectionImagesIsOneQuery() throws Exception {
+        mvc.perform(get("/api/inspections/{id}/images", inspectionId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].inspection.id").value(inspectionId));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void listingInspectionsDoesNotLoadTransformers() throws Exception {
+        mvc.perform(get("/api/inspections"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(6))
+                .andExpect(jsonPath("$[0].transformerId").isNumber());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void dateRangeIsFilteredInOneQuery() throws Exception {
+        mvc.perform(get("/api/inspections").param("from", "2025-01-01").param("to", "2025-01-11").param("region", "Nugegoda"))
+                .andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void recordSummariesAreProjectedWithoutLoadingEntities() throws Exception {
+        mvc.perform(get("/api/general-records").param("limit", "3"))
+                .andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void listingTransformersIsOneQuery() throws Exception {
+        mvc.perform(get("/api/transformers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void anomaliesOfAnInspectionDoNotLoadTheInspection() throws Exception {
+        mvc.perform(get("/api/anomalies/{n}", inspectionId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void fullInspectionIsAFixedNumberOfQueries() throws Exception {
+        GeneralRecord record = new GeneralRecord();
+        record.setInspectionId(inspectionId);
+        record.setInspectorName("A-120");
+        generalRecordRepo.save(record);
+        statistics.clear();
+
+        mvc.perform(get("/api/inspections/{id}/full", inspectionId))
+                .andExpect(status().isOk());
+        // inspection, images, anomalies, boxes and the three record tables
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(7);
+    }
+
+    @Test
+    void exportStreamsRowsWithoutLoadingEntities() throws Exception {
+        MvcResult started = mvc.perform(get("/api/export/anomalies").param("region", "Nugegoda"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk());
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+}
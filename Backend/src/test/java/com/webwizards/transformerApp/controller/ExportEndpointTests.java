@@ -0,0 +1,82 @@
+package com.webwizards.transformerApp.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.webwizards.transformerApp.ApiTestSupport;
+
+/**
+ * GET /api/export/{entity}: streamed CSV of anomalies and bounding boxes.
+ */
+class ExportEndpointTests extends ApiTestSupport {
+
+    @Test
+    void anomaliesAreExportedWithTheirTransformer() throws Exception {
+        MockHttpServletResponse response = export(get("/api/export/anomalies").param("region", "Nugegoda"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"anomalies.csv\""))
+                .andReturn().getResponse();
+
+        String[] lines = response.getContentAsString().split("\r\n");
+        assertThat(lines).hasSize(1 + 24);
+        assertThat(lines[0]).startsWith("id,inspection_number,").endsWith(",transformer_no,region");
+        assertThat(lines[1]).endsWith(",Nugegoda");
+    }
+
+    @Test
+    void aRegionWithoutAnomaliesExportsOnlyTheHeader() throws Exception {
+        String csv = export(get("/api/export/anomalies").param("region", "Kandy"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(csv.split("\r\n")).hasSize(1);
+    }
+
+    @Test
+    void gzipExportDecompressesToTheSameCsv() throws Exception {
+        String plain = export(get("/api/export/anomalies")).andReturn().getResponse().getContentAsString();
+        byte[] gzipped = export(get("/api/export/anomalies").param("format", "csv.gz"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(gunzip(gzipped)).isEqualTo(plain);
+    }
+
+    @Test
+    void anUnknownEntityIsABadRequest() throws Exception {
+        export(get("/api/export/transformers"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    private ResultActions export(RequestBuilder builder) throws Exception {
+        MvcResult started = mvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(started));
+    }
+
+    private static String gunzip(byte[] data) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
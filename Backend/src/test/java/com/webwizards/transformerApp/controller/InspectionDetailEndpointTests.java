@@ -0,0 +1,71 @@
+package com.webwizards.transformerApp.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+
+import com.webwizards.transformerApp.ApiTestSupport;
+import com.webwizards.transformerApp.model.GeneralRecord;
+
+/**
+ * GET /api/inspections/{id}/full: the whole inspection as one document, revalidated by ETag.
+ */
+class InspectionDetailEndpointTests extends ApiTestSupport {
+
+    @Test
+    void theDocumentHoldsEveryPartOfTheInspection() throws Exception {
+        record("A-120");
+
+        mvc.perform(get("/api/inspections/{id}/full", inspectionId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(jsonPath("$.inspection.id").value(inspectionId))
+                .andExpect(jsonPath("$.images.length()").value(4))
+                .andExpect(jsonPath("$.images[0].filePath").doesNotExist())
+                .andExpect(jsonPath("$.anomalies.length()").value(4))
+                .andExpect(jsonPath("$.generalRecords[0].inspectorName").value("A-120"));
+    }
+
+    @Test
+    void anUnchangedInspectionRevalidatesWithNotModified() throws Exception {
+        String etag = etag();
+
+        mvc.perform(get("/api/inspections/{id}/full", inspectionId).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+    }
+
+    @Test
+    void aChangeToAnyPartChangesTheETag() throws Exception {
+        String etag = etag();
+        record("A-121");
+
+        String changed = mvc.perform(get("/api/inspections/{id}/full", inspectionId).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(changed).isNotEqualTo(etag);
+    }
+
+    @Test
+    void anUnknownInspectionIsNotFound() throws Exception {
+        mvc.perform(get("/api/inspections/{id}/full", inspectionId + 1000))
+                .andExpect(status().isNotFound());
+    }
+
+    private String etag() throws Exception {
+        return mvc.perform(get("/api/inspections/{id}/full", inspectionId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+    }
+
+    private void record(String inspector) {
+        GeneralRecord record = new GeneralRecord();
+        record.setInspectionId(inspectionId);
+        record.setInspectorName(inspector);
+        generalRecordRepo.save(record);
+    }
+}
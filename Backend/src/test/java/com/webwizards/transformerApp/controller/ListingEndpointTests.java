@@ -0,0 +1,66 @@
+package com.webwizards.transformerApp.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+
+import com.webwizards.transformerApp.ApiTestSupport;
+import com.webwizards.transformerApp.service.KeysetPaging;
+
+/**
+ * Keyset-paginated list endpoints: filters, projections and cursor handling.
+ */
+class ListingEndpointTests extends ApiTestSupport {
+
+    @Test
+    void invalidCursorIsABadRequest() throws Exception {
+        mvc.perform(get("/api/transformers").param("cursor", "not a cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid cursor"));
+        // well-formed base64 that is not an id
+        mvc.perform(get("/api/inspections").param("cursor", "bm90LWFuLWlk"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid cursor"));
+    }
+
+    @Test
+    void inspectionsAreFilteredByDateRangeAndRegion() throws Exception {
+        // seeded dates are 2025-01-01/02, 01-11/12 and 01-21/22; "to" is inclusive
+        mvc.perform(get("/api/inspections").param("from", "2025-01-01").param("to", "2025-01-11").param("region", "Nugegoda"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].date").value("2025-01-01"))
+                .andExpect(jsonPath("$[2].date").value("2025-01-11"));
+        mvc.perform(get("/api/inspections").param("region", "Kandy"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void recordSummariesArePagedProjections() throws Exception {
+        String next = mvc.perform(get("/api/general-records").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].inspectorName").value("A-110"))
+                .andExpect(jsonPath("$[0].voltageR").doesNotExist())
+                .andReturn().getResponse().getHeader(KeysetPaging.NEXT_CURSOR_HEADER);
+
+        mvc.perform(get("/api/general-records").param("limit", "3").param("cursor", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].inspectorName").value("A-113"))
+                .andExpect(header().doesNotExist(KeysetPaging.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void invalidRecordSummaryCursorIsABadRequest() throws Exception {
+        for (String path : new String[] { "/api/general-records", "/api/maintenance-records", "/api/work-data-sheets" }) {
+            mvc.perform(get(path).param("cursor", "not a cursor"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error").value("Invalid cursor"));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.webwizards.transformerApp.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+
+import com.webwizards.transformerApp.ApiTestSupport;
+
+/**
+ * GET /api/transformers/{id}/thermal-trend request handling; the downsampling itself is covered
+ * by ThermalTrendServiceTests.
+ */
+class ThermalTrendEndpointTests extends ApiTestSupport {
+
+    @Test
+    void outOfRangeTrendPointsIsABadRequest() throws Exception {
+        mvc.perform(get("/api/transformers/{id}/thermal-trend", 1).param("points", "2"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("points must be between 3 and 2000"));
+    }
+}
@@ -0,0 +1,41 @@
+package com.webwizards.transformerApp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.webwizards.transformerApp.ApiTestSupport;
+import com.webwizards.transformerApp.dto.InspectionRef;
+import com.webwizards.transformerApp.dto.TransformerRef;
+import com.webwizards.transformerApp.model.Inspection;
+
+/**
+ * The Caffeine-backed lookups on the transformer and inspection repositories.
+ */
+class CachedLookupTests extends ApiTestSupport {
+
+    @Test
+    void repeatedLookupsAreServedFromTheCache() {
+        InspectionRef ref = inspectionRepo.findRefById(inspectionId).orElseThrow();
+        assertThat(inspectionRepo.findRefById(inspectionId)).contains(ref);
+        assertThat(ref.transformerNo()).isEqualTo("AZ-2");
+
+        TransformerRef transformer = transformerRepo.findRefById(ref.transformerId()).orElseThrow();
+        assertThat(transformerRepo.findRefById(ref.transformerId())).contains(transformer);
+        assertThat(transformer.transformerNo()).isEqualTo("AZ-2");
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void missesAreNotCached() {
+        // the next inspection id does not exist yet; saving it without going through the API must
+        // not leave a cached "no"
+        long next = inspectionId + 1;
+        assertThat(inspectionRepo.existsById(next)).isFalse();
+        Inspection created = new Inspection();
+        created.setBranch("Nugegoda");
+        assertThat(inspectionRepo.save(created).getId()).isEqualTo(next);
+        assertThat(inspectionRepo.existsById(next)).isTrue();
+    }
+}
@@ -0,0 +1,114 @@
+package com.webwizards.transformerApp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.webwizards.transformerApp.model.Anomaly;
+
+class AnalysisJournalTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void aTornLastLineIsDroppedAndTruncated() throws IOException {
+        AnalysisJournal journal = journal(DataSize.ofMegabytes(1));
+        journal.recover();
+        journal.append(entry("first"));
+        journal.append(entry("second"));
+        journal.close();
+        Path segment = segments().get(0);
+        long intact = Files.size(segment);
+        Files.writeString(segment, "{\"sequence\":3,\"kind\":\"anom", StandardOpenOption.APPEND);
+
+        AnalysisJournal reopened = journal(DataSize.ofMegabytes(1));
+        List<AnalysisJournal.Entry> recovered = reopened.recover();
+
+        assertThat(recovered).extracting(e -> e.getAnomalies().get(0).getLabel()).containsExactly("first", "second");
+        assertThat(Files.size(segment)).isEqualTo(intact);
+        assertThat(reopened.append(entry("third"))).isEqualTo(3);
+        reopened.close();
+    }
+
+    @Test
+    void recoverSkipsEntriesUpToTheCheckpoint() throws IOException {
+        AnalysisJournal journal = journal(DataSize.ofMegabytes(1));
+        journal.recover();
+        journal.append(entry("first"));
+        journal.append(entry("second"));
+        journal.append(entry("third"));
+        journal.checkpoint(2);
+        journal.close();
+
+        AnalysisJournal reopened = journal(DataSize.ofMegabytes(1));
+        List<AnalysisJournal.Entry> recovered = reopened.recover();
+
+        assertThat(recovered).extracting(AnalysisJournal.Entry::getSequence).containsExactly(3L);
+        assertThat(reopened.append(entry("fourth"))).isEqualTo(4);
+        reopened.close();
+    }
+
+    @Test
+    void fullSegmentsRollOverAndFlushedOnesAreDeleted() throws IOException {
+        // every entry is larger than the segment, so each one starts a new segment
+        AnalysisJournal journal = journal(DataSize.ofBytes(1));
+        journal.recover();
+        journal.append(entry("first"));
+        journal.append(entry("second"));
+        journal.append(entry("third"));
+        assertThat(segments()).hasSize(3);
+
+        journal.checkpoint(2);
+        assertThat(segments()).extracting(p -> p.getFileName().toString()).containsExactly("analysis-0000000003.log");
+
+        // the segment being appended to is kept even when everything in it is flushed
+        journal.checkpoint(3);
+        assertThat(segments()).hasSize(1);
+        journal.close();
+    }
+
+    @Test
+    void deadLetteredEntriesAreSetAsideAndNotReplayed() throws IOException {
+        AnalysisJournal journal = journal(DataSize.ofMegabytes(1));
+        journal.recover();
+        AnalysisJournal.Entry rejected = entry("rejected");
+        journal.append(rejected);
+        journal.deadLetter(rejected, "value too long");
+        journal.checkpoint(rejected.getSequence());
+        journal.close();
+
+        assertThat(Files.readAllLines(dir.resolve("dead-letter.log"), StandardCharsets.UTF_8))
+                .singleElement().asString().contains("\"rejected\"");
+        AnalysisJournal reopened = journal(DataSize.ofMegabytes(1));
+        assertThat(reopened.recover()).isEmpty();
+        reopened.close();
+    }
+
+    private AnalysisJournal journal(DataSize segmentSize) {
+        return new AnalysisJournal(JsonMapper.builder().findAndAddModules().build(), dir.toString(), segmentSize);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> list = Files.list(dir)) {
+            return list.filter(p -> p.getFileName().toString().startsWith("analysis-")).sorted().toList();
+        }
+    }
+
+    private static AnalysisJournal.Entry entry(String label) {
+        Anomaly a = new Anomaly();
+        a.setLabel(label);
+        return AnalysisJournal.Entry.anomalies(List.of(a));
+    }
+}
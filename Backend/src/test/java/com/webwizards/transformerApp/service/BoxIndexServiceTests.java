@@ -0,0 +1,70 @@
+package com.webwizards.transformerApp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.webwizards.transformerApp.dto.IndexedBox;
+import com.webwizards.transformerApp.dto.InspectionRef;
+import com.webwizards.transformerApp.event.BoxesStoredEvent;
+import com.webwizards.transformerApp.model.InspectionBox;
+import com.webwizards.transformerApp.repository.InspectionRepository;
+
+class BoxIndexServiceTests {
+
+    @Test
+    void boxesCommittedWhileTheTreeLoadsAreIndexed() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        // the load's snapshot predates the insert, so it only sees box 1
+        when(jdbc.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(inv -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(new IndexedBox(1, 10L, 0, 0, 10, 10, "hot", null));
+        });
+        InspectionRepository inspections = mock(InspectionRepository.class);
+        when(inspections.findRefById(10L)).thenReturn(Optional.of(new InspectionRef(10L, 1L, "AZ-1", null, null)));
+        BoxIndexService service = new BoxIndexService(jdbc, inspections, Duration.ofMinutes(5), 1000);
+
+        AtomicReference<List<IndexedBox>> found = new AtomicReference<>();
+        Thread reader = new Thread(() -> found.set(service.search(1L, 0, 0, 100, 100)));
+        reader.start();
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        InspectionBox committed = new InspectionBox();
+        committed.setId(2L);
+        committed.setInspectionRefId(10L);
+        committed.setX(20);
+        committed.setY(20);
+        committed.setW(5);
+        committed.setH(5);
+        Thread listener = new Thread(() -> service.onBoxesStored(new BoxesStoredEvent(List.of(committed))));
+        listener.start();
+        // the listener has to wait for the load rather than skip the transformer
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (listener.getState() != Thread.State.BLOCKED && listener.getState() != Thread.State.WAITING
+                && listener.isAlive() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        reader.join(5000);
+        listener.join(5000);
+
+        assertThat(found.get()).extracting(IndexedBox::id).contains(1L);
+        assertThat(service.search(1L, 0, 0, 100, 100)).extracting(IndexedBox::id).containsExactlyInAnyOrder(1L, 2L);
+    }
+}
@@ -0,0 +1,69 @@
+package com.webwizards.transformerApp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.webwizards.transformerApp.dto.IndexedBox;
+
+class BoxRTreeTests {
+
+    private final Random random = new Random(42);
+
+    @Test
+    void searchMatchesABruteForceScan() {
+        List<IndexedBox> boxes = randomBoxes(0, 5000);
+        BoxRTree tree = new BoxRTree(boxes);
+
+        for (int q = 0; q < 200; q++) {
+            int x = random.nextInt(640), y = random.nextInt(480), w = random.nextInt(120), h = random.nextInt(120);
+            assertThat(tree.search(x, y, w, h)).containsExactlyElementsOf(scan(boxes, x, y, w, h));
+        }
+    }
+
+    @Test
+    void insertedBoxesAreFoundBeforeAndAfterRepacking() {
+        List<IndexedBox> boxes = randomBoxes(0, 1000);
+        BoxRTree tree = new BoxRTree(boxes);
+
+        List<IndexedBox> added = randomBoxes(1000, 10);
+        tree.insert(added);
+        boxes.addAll(added);
+        assertThat(tree.search(0, 0, 640, 480)).containsExactlyElementsOf(scan(boxes, 0, 0, 640, 480));
+
+        // enough to trigger a repack
+        List<IndexedBox> more = randomBoxes(1010, 500);
+        tree.insert(more);
+        boxes.addAll(more);
+        assertThat(tree.size()).isEqualTo(1510);
+        assertThat(tree.search(100, 100, 50, 50)).containsExactlyElementsOf(scan(boxes, 100, 100, 50, 50));
+    }
+
+    @Test
+    void boxesAlreadyIndexedAreNotAddedTwice() {
+        List<IndexedBox> boxes = randomBoxes(0, 100);
+        BoxRTree tree = new BoxRTree(boxes);
+
+        tree.insert(boxes.subList(0, 10));
+
+        assertThat(tree.size()).isEqualTo(100);
+        assertThat(new BoxRTree(List.of()).search(0, 0, 10, 10)).isEmpty();
+    }
+
+    private List<IndexedBox> randomBoxes(long firstId, int n) {
+        List<IndexedBox> boxes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            boxes.add(new IndexedBox(firstId + i, 1L, random.nextInt(600), random.nextInt(440),
+                    1 + random.nextInt(40), 1 + random.nextInt(40), "Loose Joint", "loose joint"));
+        }
+        return boxes;
+    }
+
+    private static List<IndexedBox> scan(List<IndexedBox> boxes, int x, int y, int w, int h) {
+        return boxes.stream().filter(b -> b.intersects(x, y, x + w, y + h)).toList();
+    }
+}
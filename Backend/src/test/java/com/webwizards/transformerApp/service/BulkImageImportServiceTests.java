@@ -0,0 +1,146 @@
+package com.webwizards.transformerApp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.util.unit.DataSize;
+
+import com.webwizards.transformerApp.dto.BulkImportEntryResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BulkImageImportServiceTests {
+
+    @TempDir
+    Path root;
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactions = mock(PlatformTransactionManager.class);
+    private final RasterIngestService rasters = spy(new RasterIngestService());
+    private TieredImageStorage storage;
+    private BulkImageImportService service;
+
+    private BulkImageImportService service() throws IOException {
+        storage = new TieredImageStorage(root.resolve("hot").toString(), root.resolve("cold").toString(),
+                DataSize.ofMegabytes(10), Duration.ofDays(30), Duration.ZERO, new SimpleMeterRegistry());
+        storage.scan();
+        when(transactions.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        // hand out ids 1, 2, ... like the database would
+        doAnswer(inv -> {
+            BatchPreparedStatementSetter setter = inv.getArgument(1);
+            KeyHolder keys = inv.getArgument(2);
+            for (int i = 0; i < setter.getBatchSize(); i++) {
+                keys.getKeyList().add(Map.of("id", (long) keys.getKeyList().size() + 1));
+            }
+            return new int[setter.getBatchSize()];
+        }).when(jdbc).batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class), any(KeyHolder.class));
+        service = new BulkImageImportService(jdbc, transactions, storage, rasters, 2, DataSize.ofKilobytes(4), 100);
+        return service;
+    }
+
+    @AfterEach
+    void shutdown() {
+        if (service != null) service.shutdown();
+    }
+
+    @Test
+    void aMixedArchiveReportsEveryEntry() throws IOException {
+        byte[] png = png(4, 3);
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("scans/t1.png", png);
+        entries.put("scans/notes.txt", new byte[] { 1 });
+        entries.put("scans/copy.png", png);
+        entries.put("scans/huge.png", new byte[5000]);
+
+        List<BulkImportEntryResult> results = service().importZip(7L, zip(entries));
+
+        assertThat(results).extracting(BulkImportEntryResult::getStatus)
+                .containsExactly("imported", "skipped", "duplicate", "failed");
+        BulkImportEntryResult imported = results.get(0);
+        assertThat(imported.getImageId()).isEqualTo(1L);
+        assertThat(imported.getFileName()).isEqualTo("7_t1.png");
+        assertThat(imported.getWidth()).isEqualTo(4);
+        assertThat(imported.getHeight()).isEqualTo(3);
+        assertThat(storage.hotDirectory().resolve("7_t1.png")).exists();
+        assertThat(storage.hotDirectory().resolve("7_t1.png.rgb")).exists();
+        assertThat(results.get(2).getError()).isEqualTo("Same content as scans/t1.png");
+        assertThat(storage.hotDirectory().resolve("7_huge.png")).doesNotExist();
+    }
+
+    @Test
+    void aFailingSidecarStillImportsTheImage() throws IOException {
+        doThrow(new IllegalStateException("decoder crashed")).when(rasters).ingest(any());
+
+        List<BulkImportEntryResult> results = service().importZip(7L, zip(Map.of("t1.png", png(4, 3))));
+
+        assertThat(results).extracting(BulkImportEntryResult::getStatus).containsExactly("imported");
+        assertThat(results.get(0).getImageId()).isEqualTo(1L);
+        assertThat(results.get(0).getWidth()).isNull();
+        assertThat(storage.hotDirectory().resolve("7_t1.png")).exists();
+        assertThat(storage.hotDirectory().resolve("7_t1.png.rgb")).doesNotExist();
+    }
+
+    @Test
+    void aFailedCommitRemovesTheWrittenFiles() throws IOException {
+        BulkImageImportService service = service();
+        doThrow(new TransactionSystemException("commit failed")).when(transactions).commit(any());
+
+        List<BulkImportEntryResult> results = service.importZip(7L, zip(Map.of("t1.png", png(4, 3))));
+
+        assertThat(results).extracting(BulkImportEntryResult::getStatus).containsExactly("failed");
+        assertThat(results.get(0).getImageId()).isNull();
+        assertThat(storage.hotDirectory().resolve("7_t1.png")).doesNotExist();
+        assertThat(storage.hotDirectory().resolve("7_t1.png.rgb")).doesNotExist();
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(1, 1, 0xff0000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static ByteArrayInputStream zip(Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("scans/"));
+            zip.closeEntry();
+            for (Map.Entry<String, byte[]> e : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(e.getKey()));
+                zip.write(e.getValue());
+                zip.closeEntry();
+            }
+        }
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+}
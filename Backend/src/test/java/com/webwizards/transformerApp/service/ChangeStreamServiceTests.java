@@ -0,0 +1,90 @@
+package com.webwizards.transformerApp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.webwizards.transformerApp.event.AnalysisChangeEvent;
+import com.webwizards.transformerApp.repository.InspectionRepository;
+import com.webwizards.transformerApp.repository.TransformerRepository;
+
+class ChangeStreamServiceTests {
+
+    private final ChangeStreamService service = new ChangeStreamService(mock(InspectionRepository.class),
+            mock(TransformerRepository.class), 16, 10, Duration.ofMinutes(1), 1, Duration.ofMillis(50));
+    private final ChangeStreamService.Filter all = new ChangeStreamService.Filter(null, null, null, null);
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    void aStalledClientIsDroppedWithoutStarvingTheOthers() throws Exception {
+        StalledEmitter stalled = new StalledEmitter();
+        RecordingEmitter healthy = new RecordingEmitter(2);
+        // the only sending thread picks up the stalled subscriber first
+        service.register(stalled, all);
+        service.register(healthy, all);
+
+        service.onChange(new AnalysisChangeEvent("anomalies-inserted", null, 1));
+        assertThat(stalled.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+        service.dropStalled();
+
+        service.onChange(new AnalysisChangeEvent("anomalies-deleted", null, 1));
+        assertThat(healthy.received.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stalled.sends.get()).isEqualTo(1);
+
+        // the container's write timeout eventually fails the blocked send
+        stalled.release.countDown();
+        assertThat(stalled.completedWithError.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static final class StalledEmitter extends SseEmitter {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch completedWithError = new CountDownLatch(1);
+        final AtomicInteger sends = new AtomicInteger();
+
+        @Override
+        public void send(SseEventBuilder event) throws IOException {
+            sends.incrementAndGet();
+            sending.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("write timed out");
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable ex) {
+            super.completeWithError(ex);
+            completedWithError.countDown();
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        final CountDownLatch received;
+
+        RecordingEmitter(int expected) {
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(SseEventBuilder event) {
+            received.countDown();
+        }
+    }
+}
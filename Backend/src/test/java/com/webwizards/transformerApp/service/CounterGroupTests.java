@@ -0,0 +1,43 @@
+package com.webwizards.transformerApp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class CounterGroupTests {
+
+    @Test
+    void concurrentAddsAreAllCounted() throws InterruptedException {
+        CounterGroup group = new CounterGroup();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) group.add(i % 2 == 0 ? "high" : "low", 1);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread t : threads) t.join();
+
+        assertThat(group.snapshot()).isEqualTo(Map.of("high", 40_000L, "low", 40_000L));
+        assertThat(group.total()).isEqualTo(80_000);
+    }
+
+    @Test
+    void reconcileMovesCountsToTheDatabaseAndDropsMissingKeys() {
+        CounterGroup group = new CounterGroup();
+        group.add("Pending", 5);
+        group.add("Completed", 2);
+        group.add("", 1);
+
+        long drift = group.reconcile(Map.of("Pending", 4L, "Completed", 3L));
+
+        assertThat(drift).isEqualTo(3);
+        assertThat(group.snapshot()).isEqualTo(Map.of("Pending", 4L, "Completed", 3L));
+        assertThat(group.reconcile(Map.of("Pending", 4L, "Completed", 3L))).isZero();
+    }
+}
@@ -0,0 +1,43 @@
+package com.webwizards.transformerApp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import com.webwizards.transformerApp.dto.ChangeNotification;
+
+class EventBufferTests {
+
+    @Test
+    void burstsAgainstOneInspectionCoalesce() {
+        EventBuffer buffer = new EventBuffer(4);
+        buffer.offer(change("anomalies-inserted", 7L, 2, 1));
+        buffer.offer(change("anomalies-inserted", 7L, 3, 2));
+        buffer.offer(change("anomalies-deleted", 7L, 1, 3));
+
+        EventBuffer.Batch batch = buffer.drain();
+
+        assertThat(batch.dropped()).isZero();
+        assertThat(batch.notifications()).containsExactly(
+                change("anomalies-inserted", 7L, 5, 2),
+                change("anomalies-deleted", 7L, 1, 3));
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    void aFullBufferDropsTheOldestAndCountsIt() {
+        EventBuffer buffer = new EventBuffer(2);
+        for (long i = 1; i <= 5; i++) buffer.offer(change("analysis-saved", i, 1, i));
+
+        EventBuffer.Batch batch = buffer.drain();
+
+        assertThat(batch.dropped()).isEqualTo(3);
+        assertThat(batch.notifications()).extracting(ChangeNotification::inspectionId).containsExactly(4L, 5L);
+    }
+
+    private static ChangeNotification change(String type, Long inspectionId, int count, long second) {
+        return new ChangeNotification(type, inspectionId, 1L, "Nugegoda", count, Instant.ofEpochSecond(second));
+    }
+}
@@ -0,0 +1,55 @@
+package com.webwizards.transformerApp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.webwizards.transformerApp.dto.IndexedBox;
+
+class HotspotMatcherTests {
+
+    private final HotspotMatcher matcher = new HotspotMatcher(0.1, 40);
+
+    @Test
+    void recurringHotspotsKeepTheirTrackAndNewOnesDoNot() {
+        List<IndexedBox> tracks = List.of(
+                box(1, 100, 100, 30, 30, "loose joint"),
+                box(2, 400, 300, 20, 20, "point overload"));
+        List<IndexedBox> boxes = List.of(
+                box(10, 104, 98, 34, 32, "loose joint"),     // grown a little, same place
+                box(11, 600, 50, 10, 10, "loose joint"),     // nowhere near a track
+                box(12, 405, 302, 20, 20, "wire overload")); // near track 2 but a different fault
+
+        Map<Integer, Long> matched = matcher.match(tracks, boxes);
+
+        assertThat(matched).containsExactlyEntriesOf(Map.of(0, 1L));
+    }
+
+    @Test
+    void eachTrackTakesItsClosestBoxOnly() {
+        List<IndexedBox> tracks = List.of(box(1, 100, 100, 30, 30, ""));
+        List<IndexedBox> boxes = List.of(
+                box(10, 120, 110, 30, 30, ""),
+                box(11, 101, 100, 30, 30, ""));
+
+        assertThat(matcher.match(tracks, boxes)).containsExactlyEntriesOf(Map.of(1, 1L));
+    }
+
+    @Test
+    void matchesWithinTheGateAmongThousandsOfTracks() {
+        List<IndexedBox> tracks = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) tracks.add(box(i, (i % 100) * 50, (i / 100) * 50, 20, 20, ""));
+        List<IndexedBox> boxes = List.of(box(100_000, 2_502, 1_003, 20, 20, ""));
+
+        // the track at column 50, row 20
+        assertThat(matcher.match(tracks, boxes)).containsExactlyEntriesOf(Map.of(0, 2050L));
+    }
+
+    private static IndexedBox box(long id, int x, int y, int w, int h, String fault) {
+        return new IndexedBox(id, 1L, x, y, w, h, null, fault);
+    }
+}
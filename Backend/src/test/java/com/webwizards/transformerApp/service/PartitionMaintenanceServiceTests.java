@@ -0,0 +1,78 @@
+package com.webwizards.transformerApp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class PartitionMaintenanceServiceTests {
+
+    private static final PartitionMaintenanceService.PartitionedTable ANOMALIES = PartitionMaintenanceService.TABLES.get(0);
+    private static final PartitionMaintenanceService.PartitionedTable BOXES = PartitionMaintenanceService.TABLES.get(1);
+
+    @Test
+    void partitionNamesRoundTripAndForeignNamesAreIgnored() {
+        assertThat(PartitionMaintenanceService.partitionName("anomalies", YearMonth.of(2025, 3))).isEqualTo("anomalies_p2025_03");
+        assertThat(PartitionMaintenanceService.monthOf("anomalies", "anomalies_p2025_03")).isEqualTo(YearMonth.of(2025, 3));
+        assertThat(PartitionMaintenanceService.monthOf("anomalies", "anomalies_default")).isNull();
+        assertThat(PartitionMaintenanceService.monthOf("anomalies", "anomalies_p2025_13")).isNull();
+        assertThat(PartitionMaintenanceService.monthOf("anomalies", "bounding_boxes_p2025_03")).isNull();
+    }
+
+    @Test
+    void onlyMonthsWhollyBeforeTheCutoffAreRetired() {
+        YearMonth current = YearMonth.of(2025, 3);
+        YearMonth cutoff = PartitionMaintenanceService.retentionCutoff(LocalDate.of(2025, 3, 15), Period.ofMonths(24));
+        assertThat(cutoff).isEqualTo(YearMonth.of(2023, 3));
+
+        List<String> partitions = List.of("anomalies_default", "anomalies_p2023_01", "anomalies_p2023_02",
+                "anomalies_p2023_03", "anomalies_p2025_03", "anomalies_p2025_04");
+        assertThat(PartitionMaintenanceService.expired("anomalies", partitions, cutoff, current))
+                .containsExactly("anomalies_p2023_01", "anomalies_p2023_02");
+
+        // a zero retention still never retires the month being written to, or later ones
+        YearMonth none = PartitionMaintenanceService.retentionCutoff(LocalDate.of(2025, 3, 15), Period.ZERO);
+        assertThat(PartitionMaintenanceService.expired("anomalies", partitions, none, current))
+                .containsExactly("anomalies_p2023_01", "anomalies_p2023_02", "anomalies_p2023_03");
+    }
+
+    @Test
+    void attachedPartitionsAreLeftAlone() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.queryForList(anyString(), eq(String.class), eq("anomalies"))).thenReturn(List.of("anomalies_p2025_03"));
+        PartitionMaintenanceService service = service(jdbc);
+
+        service.createPartition(ANOMALIES, YearMonth.of(2025, 3));
+
+        verify(jdbc, never()).execute(anyString());
+    }
+
+    @Test
+    void missingPartitionsAreAttachedWithTheirMonthBounds() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.queryForList(anyString(), eq(String.class), eq("bounding_boxes"))).thenReturn(List.of("bounding_boxes_p2025_02"));
+        PartitionMaintenanceService service = service(jdbc);
+
+        service.createPartition(BOXES, YearMonth.of(2025, 3));
+
+        verify(jdbc).execute("ALTER TABLE bounding_boxes ATTACH PARTITION bounding_boxes_p2025_03"
+                + " FOR VALUES FROM ('2025-03-01 00:00:00+00') TO ('2025-04-01 00:00:00+00')");
+    }
+
+    private static PartitionMaintenanceService service(JdbcTemplate jdbc) {
+        return new PartitionMaintenanceService(jdbc, mock(DataSource.class), true, 3, Period.ofMonths(24), "archive");
+    }
+}
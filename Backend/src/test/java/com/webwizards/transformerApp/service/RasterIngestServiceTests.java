@@ -0,0 +1,105 @@
+package com.webwizards.transformerApp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RasterIngestServiceTests {
+
+    @TempDir
+    Path dir;
+
+    private final RasterIngestService service = new RasterIngestService();
+
+    @Test
+    void theSidecarHeaderAndPixelsRoundTrip() throws IOException {
+        Path png = png("t1.png", new int[][] { { 0x102030, 0x405060, 0x708090 }, { 0xa0b0c0, 0xd0e0f0, 0xffffff } });
+
+        RasterIngestService.RasterInfo written = service.ingest(png);
+
+        assertThat(written.getWidth()).isEqualTo(3);
+        assertThat(written.getHeight()).isEqualTo(2);
+        assertThat(written.getStride()).isEqualTo(9);
+        Path sidecar = service.sidecarFor(png);
+        assertThat(Files.size(sidecar)).isEqualTo(RasterIngestService.HEADER_SIZE + 2 * 9);
+
+        RasterIngestService.RasterInfo read = service.readInfo(png);
+        assertThat(read).usingRecursiveComparison().isEqualTo(written);
+        RasterIngestService.MappedRaster raster = service.map(sidecar);
+        assertThat(rgb(raster.getBuffer(), 9, 0, 0)).isEqualTo(0x102030);
+        assertThat(rgb(raster.getBuffer(), 9, 2, 0)).isEqualTo(0x708090);
+        assertThat(rgb(raster.getBuffer(), 9, 1, 1)).isEqualTo(0xd0e0f0);
+    }
+
+    @Test
+    void theHashCoversTheWholeFileSoIdenticalUploadsMatch() throws IOException, NoSuchAlgorithmException {
+        Path png = png("t1.png", new int[][] { { 0x102030, 0x405060 } });
+        // bytes after the image data are not read by the decoder but are part of the file
+        Files.write(png, new byte[] { 1, 2, 3 }, StandardOpenOption.APPEND);
+        Path copy = Files.copy(png, dir.resolve("t1-copy.png"));
+        Path other = png("t2.png", new int[][] { { 0x102030, 0x405061 } });
+
+        String hash = service.ingest(png).getSha256();
+
+        assertThat(hash).isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(png))));
+        assertThat(service.ingest(copy).getSha256()).isEqualTo(hash);
+        assertThat(service.ingest(other).getSha256()).isNotEqualTo(hash);
+    }
+
+    @Test
+    void resizingToAnOddSizeInterpolatesBilinearly() throws IOException {
+        Path png = png("t1.png", new int[][] { { 0x000000, 0xffffff } });
+        String hash = service.ingest(png).getSha256();
+
+        Path resized = service.ensureResized(png, 3, 3);
+
+        assertThat(resized).isEqualTo(service.resizedSidecarFor(png, 3, 3));
+        RasterIngestService.MappedRaster raster = service.map(resized);
+        assertThat(raster.getInfo().getWidth()).isEqualTo(3);
+        assertThat(raster.getInfo().getHeight()).isEqualTo(3);
+        assertThat(raster.getInfo().getStride()).isEqualTo(9);
+        assertThat(raster.getInfo().getSha256()).isEqualTo(hash);
+        for (int y = 0; y < 3; y++) {
+            assertThat(rgb(raster.getBuffer(), 9, 0, y)).isEqualTo(0x000000);
+            assertThat(rgb(raster.getBuffer(), 9, 1, y)).isEqualTo(0x808080);
+            assertThat(rgb(raster.getBuffer(), 9, 2, y)).isEqualTo(0xffffff);
+        }
+    }
+
+    @Test
+    void aMatchingSizeUsesTheOriginalSidecar() throws IOException {
+        Path png = png("t1.png", new int[][] { { 0x000000, 0xffffff } });
+        service.ingest(png);
+
+        assertThat(service.ensureResized(png, 2, 1)).isEqualTo(service.sidecarFor(png));
+        assertThat(service.resizedSidecarFor(png, 2, 1)).doesNotExist();
+    }
+
+    private Path png(String name, int[][] rows) throws IOException {
+        BufferedImage image = new BufferedImage(rows[0].length, rows.length, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < rows.length; y++) {
+            for (int x = 0; x < rows[y].length; x++) image.setRGB(x, y, rows[y][x]);
+        }
+        Path file = dir.resolve(name);
+        ImageIO.write(image, "png", file.toFile());
+        return file;
+    }
+
+    private static int rgb(ByteBuffer raster, int stride, int x, int y) {
+        int at = RasterIngestService.HEADER_SIZE + y * stride + x * 3;
+        return (raster.get(at) & 0xff) << 16 | (raster.get(at + 1) & 0xff) << 8 | (raster.get(at + 2) & 0xff);
+    }
+}
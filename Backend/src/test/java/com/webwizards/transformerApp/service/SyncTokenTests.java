@@ -0,0 +1,38 @@
+package com.webwizards.transformerApp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class SyncTokenTests {
+
+    @Test
+    void noTokenIsAFullSync() {
+        SyncToken token = SyncToken.decode(null);
+
+        assertThat(token.isStart()).isTrue();
+        assertThat(token.floor()).isZero();
+    }
+
+    @Test
+    void tokensRoundTrip() {
+        SyncToken start = SyncToken.start(7_000_123L);
+        SyncToken mid = new SyncToken(7_000_123L, 7_000_456L, 0, -1, 0).after(7_000_200L, SyncService.INSPECTION, 42L);
+
+        assertThat(SyncToken.decode(start.encode())).isEqualTo(start);
+        assertThat(SyncToken.decode(mid.encode())).isEqualTo(mid);
+        assertThat(SyncToken.decode(mid.encode()).isStart()).isFalse();
+    }
+
+    @Test
+    void garbageIsRejected() {
+        String bad = Base64.getUrlEncoder().encodeToString("1:2:3".getBytes(StandardCharsets.US_ASCII));
+
+        assertThatThrownBy(() -> SyncToken.decode(bad)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SyncToken.decode("%%%")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
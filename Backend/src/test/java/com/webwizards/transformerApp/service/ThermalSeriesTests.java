@@ -0,0 +1,65 @@
+package com.webwizards.transformerApp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ThermalSeriesTests {
+
+    @Test
+    void encodedChunkDecodesToTheSamePointsInTimeOrder() {
+        ThermalSeries series = new ThermalSeries();
+        series.put(1_700_000_000L, 7, new float[] { 0.9f, 0.2f, 14.5f, 0.03f });
+        series.put(1_600_000_000L, 3, new float[] { 0.1f, Float.NaN, 2f, 0f });
+        series.put(1_650_000_000L, 5, new float[] { 0.5f, 0.1f, 8f, 0.01f });
+
+        ThermalSeries decoded = ThermalSeries.decode(series.encode());
+
+        assertThat(decoded.size()).isEqualTo(3);
+        assertThat(decoded.time(0)).isEqualTo(1_600_000_000L);
+        assertThat(decoded.inspectionId(1)).isEqualTo(5);
+        assertThat(decoded.value(0, 2)).isEqualTo(0.9f);
+        assertThat(decoded.value(1, 0)).isNaN();
+    }
+
+    @Test
+    void reanalysingAnInspectionReplacesItsPoint() {
+        ThermalSeries series = new ThermalSeries();
+        for (int i = 0; i < 20; i++) series.put(1_000L * i, i, new float[] { i, i, i, i });
+        series.put(5_500L, 5, new float[] { 99, 99, 99, 99 });
+
+        assertThat(series.size()).isEqualTo(20);
+        assertThat(series.inspectionId(5)).isEqualTo(5);
+        assertThat(series.time(5)).isEqualTo(5_500L);
+        assertThat(series.value(0, 5)).isEqualTo(99f);
+    }
+
+    @Test
+    void deltaEncodingKeepsRegularSeriesSmall() {
+        ThermalSeries series = new ThermalSeries();
+        for (int i = 0; i < 1000; i++) series.put(1_600_000_000L + 86_400L * i, 10_000 + i, new float[] { 0, 0, 0, 0 });
+
+        // 3 varint bytes per day step, 1 per id step, 16 bytes of metrics per point
+        assertThat(series.encode().length).isLessThan(1000 * 21);
+    }
+
+    @Test
+    void lttbKeepsEndpointsAndPeaks() {
+        ThermalSeries series = new ThermalSeries();
+        for (int i = 0; i < 1000; i++) {
+            float v = i == 500 ? 100f : (float) Math.sin(i / 50.0);
+            series.put(i, i, new float[] { v, Float.NaN, v, v });
+        }
+
+        List<double[]> points = ThermalSeries.lttb(List.of(series), 0, Long.MIN_VALUE, Long.MAX_VALUE, 50);
+
+        assertThat(points).hasSize(50);
+        assertThat(points.get(0)[0]).isEqualTo(0);
+        assertThat(points.get(49)[0]).isEqualTo(999);
+        assertThat(points).anySatisfy(p -> assertThat(p[1]).isEqualTo(100));
+        assertThat(ThermalSeries.lttb(List.of(series), 1, Long.MIN_VALUE, Long.MAX_VALUE, 50)).isEmpty();
+        assertThat(ThermalSeries.lttb(List.of(series), 0, 100, 109, 50)).hasSize(10);
+    }
+}
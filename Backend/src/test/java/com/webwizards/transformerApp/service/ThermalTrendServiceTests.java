@@ -0,0 +1,55 @@
+package com.webwizards.transformerApp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webwizards.transformerApp.repository.InspectionRepository;
+
+class ThermalTrendServiceTests {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final ThermalTrendService service = new ThermalTrendService(jdbc, mock(InspectionRepository.class),
+            mock(TransactionTemplate.class), 300, 2000);
+
+    @Test
+    void pointsOutsideTheLimitsAreRejectedBeforeQuerying() {
+        assertThatThrownBy(() -> service.trend(1L, null, null, 2))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("points must be between 3 and 2000");
+        assertThatThrownBy(() -> service.trend(1L, null, null, 2001))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void everyMetricIsDownsampledToTheRequestedPoints() {
+        ThermalSeries chunk = new ThermalSeries();
+        for (int i = 0; i < 50; i++) chunk.put(1_700_000_000L + 86_400L * i, i, new float[] { i, i, i, i });
+        when(jdbc.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of(chunk));
+
+        Map<String, Object> trend = service.trend(1L, null, null, 5);
+
+        assertThat(trend).containsEntry("transformerId", 1L);
+        Map<String, List<double[]>> series = (Map<String, List<double[]>>) trend.get("series");
+        assertThat(series).containsOnlyKeys(ThermalSeries.METRICS);
+        List<double[]> prob = series.get("prob");
+        assertThat(prob).hasSize(5);
+        // epoch millis, and LTTB always keeps both ends
+        assertThat(prob.get(0)).containsExactly(1_700_000_000_000d, 0d);
+        assertThat(prob.get(4)).containsExactly((1_700_000_000L + 86_400L * 49) * 1000d, 49d);
+    }
+}
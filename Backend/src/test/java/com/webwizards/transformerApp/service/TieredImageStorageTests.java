@@ -0,0 +1,86 @@
+package com.webwizards.transformerApp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TieredImageStorageTests {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void theLeastRecentlyUsedBlobIsEvictedWhenTheBudgetIsExceeded() throws IOException {
+        TieredImageStorage storage = storage(250, Duration.ZERO);
+        Path a = write(storage, "a.png", 100);
+        Path b = write(storage, "b.png", 100);
+        storage.resolve(a.toString());
+
+        Path c = write(storage, "c.png", 100);
+
+        assertThat(a).exists();
+        assertThat(b).doesNotExist();
+        assertThat(c).exists();
+        assertThat(root.resolve("cold/b.png.gz")).exists();
+        assertThat(storage.exists(b.toString())).isTrue();
+    }
+
+    @Test
+    void readingAColdBlobPromotesItWithItsContent() throws IOException {
+        TieredImageStorage storage = storage(250, Duration.ZERO);
+        Path a = write(storage, "a.png", 100);
+        Path b = write(storage, "b.png", 100);
+        write(storage, "c.png", 100);
+        assertThat(a).doesNotExist();
+
+        Path resolved = storage.resolve(a.toString());
+
+        assertThat(resolved).isEqualTo(a);
+        assertThat(Files.readAllBytes(a)).isEqualTo(content(100));
+        assertThat(root.resolve("cold/a.png.gz")).doesNotExist();
+        // the promotion pushed the tier over budget again, so the next least recently used blob went cold
+        assertThat(b).doesNotExist();
+        assertThat(root.resolve("cold/b.png.gz")).exists();
+    }
+
+    @Test
+    void blobsWithinTheMinimumResidencyAreNotEvicted() throws IOException {
+        TieredImageStorage storage = storage(150, Duration.ofHours(1));
+        Path a = write(storage, "a.png", 100);
+        Path b = write(storage, "b.png", 100);
+
+        assertThat(a).exists();
+        assertThat(b).exists();
+        assertThat(root.resolve("cold/a.png.gz")).doesNotExist();
+    }
+
+    private TieredImageStorage storage(long budgetBytes, Duration minResidency) throws IOException {
+        TieredImageStorage storage = new TieredImageStorage(root.resolve("hot").toString(), root.resolve("cold").toString(),
+                DataSize.ofBytes(budgetBytes), Duration.ofDays(30), minResidency, new SimpleMeterRegistry());
+        storage.scan();
+        return storage;
+    }
+
+    private static Path write(TieredImageStorage storage, String name, int size) throws IOException {
+        Path file = storage.hotDirectory().resolve(name);
+        Files.write(file, content(size));
+        storage.admit(file);
+        return file;
+    }
+
+    private static byte[] content(int size) {
+        byte[] data = new byte[size];
+        Arrays.fill(data, (byte) 7);
+        return data;
+    }
+}
@@ -21,15 +21,27 @@ export async function saveAnalysisResult(result, inspectionId) {
 // API.js
 // Utility functions for all API requests 
 
+// List endpoints are keyset-paginated: follow the X-Next-Cursor header until the last page
+async function fetchAllPages(endpoint, errorMessage) {
+	const rows = [];
+	let cursor = null;
+	do {
+		const url = cursor ? `${endpoint}?cursor=${encodeURIComponent(cursor)}` : endpoint;
+		const response = await fetch(url);
+		if (!response.ok) {
+			throw new Error(errorMessage);
+		}
+		rows.push(...(await response.json()));
+		cursor = response.headers.get('X-Next-Cursor');
+	} while (cursor);
+	return rows;
+}
+
 // Fetch all inspections from backend
 export async function getInspections() {
 	const endpoint = "http://localhost:8080/api/inspections";
 	try {
-		const response = await fetch(endpoint);
-		if (!response.ok) {
-			throw new Error('Failed to fetch inspections');
-		}
-		return await response.json();
+		return await fetchAllPages(endpoint, 'Failed to fetch inspections');
 	} catch (error) {
 		console.error(error);
 		throw error;
@@ -40,11 +52,7 @@ export async function getInspections() {
 export async function getTransformers() {
 	const endpoint = "http://localhost:8080/api/transformers";
 	try {
-		const response = await fetch(endpoint);
-		if (!response.ok) {
-			throw new Error('Failed to fetch transformers');
-		}
-		return await response.json();
+		return await fetchAllPages(endpoint, 'Failed to fetch transformers');
 	} catch (error) {
 		console.error(error);
 		throw error;